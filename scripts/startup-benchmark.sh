@@ -0,0 +1,104 @@
+#!/usr/bin/env bash
+#
+# Startup benchmark: time from `docker run` to the first successful GET /api/movies, for the same image started
+# plainly ("baseline": no AOT cache, no Spring AOT) and as shipped ("aot"). Each mode is started RUNS times
+# against a throwaway Postgres container; the first start migrates the schema and is not counted.
+#
+# Usage: scripts/startup-benchmark.sh            (builds the image first)
+#        SKIP_BUILD=1 RUNS=10 scripts/startup-benchmark.sh
+#
+# Results are printed and written to target/startup-benchmark.txt.
+set -euo pipefail
+
+RUNS=${RUNS:-5}
+IMAGE=${IMAGE:-vaiki-backend:startup-benchmark}
+HOST_PORT=${HOST_PORT:-18080}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+NETWORK=vaiki-startup-benchmark
+DB=vaiki-startup-benchmark-db
+APP=vaiki-startup-benchmark-app
+
+BASELINE_OPTS="-XX:AOTMode=off -Dspring.aot.enabled=false"
+AOT_OPTS="-XX:AOTCache=app.aot -Dspring.aot.enabled=true"
+
+cd "$(dirname "$0")/.."
+mkdir -p target
+
+cleanup() {
+    docker rm -f "$APP" "$DB" >/dev/null 2>&1 || true
+    docker network rm "$NETWORK" >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+cleanup
+
+if [[ -z "${SKIP_BUILD:-}" ]]; then
+    docker build -t "$IMAGE" .
+fi
+
+# Throwaway signing key: the app loads it on ApplicationReadyEvent, so it is part of what is measured
+PRIVATE_KEY=$(openssl genpkey -algorithm RSA -pkeyopt rsa_keygen_bits:2048 2>/dev/null)
+
+docker network create "$NETWORK" >/dev/null
+docker run -d --name "$DB" --network "$NETWORK" \
+    -e POSTGRES_DB=vaiki -e POSTGRES_USER=vaiki -e POSTGRES_PASSWORD=vaiki \
+    postgres:17-alpine >/dev/null
+until docker exec "$DB" pg_isready -U vaiki -d vaiki >/dev/null 2>&1; do
+    sleep 0.5
+done
+
+# Prints the milliseconds from `docker run` to the first 200 from /api/movies.
+start_once() {
+    local java_opts=$1
+    local started ended
+    started=$(date +%s%N)
+    docker run -d --name "$APP" --network "$NETWORK" -p "$HOST_PORT:8080" \
+        -e JAVA_OPTS="$java_opts" \
+        -e SPRING_PROFILES_ACTIVE=prod \
+        -e DB_HOST="$DB" -e DB_PORT=5432 -e DB_NAME=vaiki -e DB_USER=vaiki -e DB_PASSWORD=vaiki \
+        -e FRONTEND_URLS=http://localhost:5173 \
+        -e CLOUDFRONT_KEY_PAIR_ID=KBENCHMARK -e CLOUDFRONT_DOMAIN=benchmark.invalid \
+        -e CLOUDFRONT_PRIVATE_KEY_CONTENT="$PRIVATE_KEY" \
+        "$IMAGE" >/dev/null
+    local deadline=$(( $(date +%s) + TIMEOUT_SECONDS ))
+    until curl -sf -o /dev/null "http://localhost:$HOST_PORT/api/movies"; do
+        if (( $(date +%s) > deadline )); then
+            echo "No successful /api/movies within ${TIMEOUT_SECONDS}s; last log lines:" >&2
+            docker logs --tail 50 "$APP" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    ended=$(date +%s%N)
+    docker rm -f "$APP" >/dev/null
+    echo $(( (ended - started) / 1000000 ))
+}
+
+# Prints "median min max" of the arguments.
+summarize() {
+    printf '%s\n' "$@" | sort -n | awk '{ v[NR] = $1 } END { printf "%d %d %d", v[int((NR + 1) / 2)], v[1], v[NR] }'
+}
+
+echo "Migrating schema (discarded start)..."
+start_once "$BASELINE_OPTS" >/dev/null
+
+declare -A results
+for mode in baseline aot; do
+    opts=$BASELINE_OPTS
+    [[ $mode == aot ]] && opts=$AOT_OPTS
+    times=()
+    for ((i = 1; i <= RUNS; i++)); do
+        ms=$(start_once "$opts")
+        echo "$mode run $i: ${ms} ms"
+        times+=("$ms")
+    done
+    results[$mode]=$(summarize "${times[@]}")
+done
+
+{
+    echo "Time to first successful GET /api/movies ($RUNS runs each, image $IMAGE)"
+    printf '%-10s %10s %10s %10s\n' mode "median ms" "min ms" "max ms"
+    for mode in baseline aot; do
+        read -r median min max <<<"${results[$mode]}"
+        printf '%-10s %10d %10d %10d\n' "$mode" "$median" "$min" "$max"
+    done
+} | tee target/startup-benchmark.txt
@@ -0,0 +1,69 @@
+package ee.markh.vaiki_backend.dto;
+
+import ee.markh.vaiki_backend.CatalogFixtures;
+import ee.markh.vaiki_backend.entity.Category;
+import ee.markh.vaiki_backend.entity.Movie;
+import ee.markh.vaiki_backend.service.EncodedJson;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping and JSON serialization of the full movie list as the catalog grows.
+ * Run with the gc profiler (the benchmarks profile does this) to see allocation per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogMappingBenchmark {
+
+    @Param({"3", "1000", "50000"})
+    public int catalogSize;
+
+    private List<Movie> movies;
+    private List<Category> categories;
+    private List<MovieDto> movieDtos;
+    private byte[] moviesJson;
+    private JsonMapper jsonMapper;
+
+    @Setup
+    public void setUp() {
+        movies = CatalogFixtures.movies(catalogSize);
+        categories = CatalogFixtures.categories();
+        movieDtos = movies.stream().map(MovieDto::from).toList();
+        jsonMapper = JsonMapper.builder().build();
+        moviesJson = jsonMapper.writeValueAsBytes(movieDtos);
+    }
+
+    @Benchmark
+    public List<MovieDto> mapMovies() {
+        return movies.stream().map(MovieDto::from).toList();
+    }
+
+    @Benchmark
+    public List<CategoryDto> mapCategories() {
+        return categories.stream().map(CategoryDto::from).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeMovies() {
+        return jsonMapper.writeValueAsBytes(movieDtos);
+    }
+
+    /**
+     * Cost paid once per catalog snapshot: identity + gzip + brotli encoding of the movie list.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public EncodedJson encodeMovies() {
+        return EncodedJson.encode(moviesJson);
+    }
+}
@@ -0,0 +1,83 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.TestKeys;
+import ee.markh.vaiki_backend.service.CloudFrontSignerService.SignedUrlResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing hot paths: raw RSA signing per request (pooled vs. fresh Signature instances) vs. the bucketed
+ * SignedUrlCache, and PEM key parsing.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CloudFrontSignerBenchmark {
+
+    private static final String HLS_PATH = "/all-quiet-on-the-western-front-1930/master.m3u8";
+    private static final byte[] POLICY = CloudFrontSignerService.policy(
+            "https://" + TestKeys.DOMAIN + HLS_PATH, Instant.ofEpochSecond(2_000_000_000L)).getBytes(StandardCharsets.UTF_8);
+
+    private CloudFrontSignerService signer;
+    private SignedUrlCache signedUrlCache;
+    private String pem;
+    private PrivateKey privateKey;
+
+    @Setup
+    public void setUp() throws Exception {
+        pem = TestKeys.privateKeyPem();
+        signer = new CloudFrontSignerService(
+                new CloudFrontKeyRing(TestKeys.KEY_PAIR_ID, "", pem, "", new SimpleMeterRegistry()),
+                TestKeys.DOMAIN, 3600, new SimpleMeterRegistry());
+        signer.warmUp();
+        privateKey = CloudFrontKeyRing.SigningKey.parsePrivateKey(pem);
+        signedUrlCache = new SignedUrlCache(signer, new SimpleMeterRegistry(), 300, 10_000, 60, 14400);
+    }
+
+    @Benchmark
+    public SignedUrlResult getSignedUrl() throws Exception {
+        return signer.getSignedUrl(HLS_PATH, null);
+    }
+
+    @Benchmark
+    public SignedUrlResult signUrlFixedExpiry() {
+        return signer.signUrl(HLS_PATH, Instant.ofEpochSecond(2_000_000_000L));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public SignedUrlResult signUrlConcurrently() {
+        return signer.signUrl(HLS_PATH, Instant.ofEpochSecond(2_000_000_000L));
+    }
+
+    /**
+     * What signUrl's pooled Signature instances save: a provider lookup and key initialization per signature.
+     */
+    @Benchmark
+    public byte[] signWithFreshSignature() throws Exception {
+        Signature signature = Signature.getInstance("SHA1withRSA");
+        signature.initSign(privateKey);
+        signature.update(POLICY);
+        return signature.sign();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public SignedUrlResult signedUrlCacheHit() {
+        return signedUrlCache.getSignedUrl(HLS_PATH, null);
+    }
+
+    @Benchmark
+    public PrivateKey parsePrivateKey() throws Exception {
+        return CloudFrontKeyRing.SigningKey.parsePrivateKey(pem);
+    }
+}
@@ -0,0 +1,43 @@
+package ee.markh.vaiki_backend.config;
+
+import ee.markh.vaiki_backend.service.CatalogImportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Imports a JSON Lines catalog file on startup.
+ * Activated with the "import" profile, e.g.
+ * {@code --spring.profiles.active=dev,import --app.import.file=catalog.jsonl --spring.main.web-application-type=none}
+ * <p>
+ * Checked at run time rather than with {@code @Profile}, which the AOT build would fix at image build time
+ * (see {@link DataSeeder}).
+ */
+@Configuration
+public class CatalogImportRunner {
+
+    @Bean
+    CommandLineRunner importCatalog(
+            Environment environment,
+            CatalogImportService catalogImportService,
+            @Value("${app.import.file:}") String file,
+            @Value("${app.import.mode:upsert}") String mode) {
+        return _ -> {
+            if (!environment.matchesProfiles("import")) {
+                return;
+            }
+            if (file.isBlank()) {
+                throw new IllegalStateException("The import profile requires app.import.file");
+            }
+            try (InputStream input = Files.newInputStream(Path.of(file))) {
+                catalogImportService.importJsonl(input, CatalogImportService.Mode.parse(mode));
+            }
+        };
+    }
+}
@@ -1,37 +1,45 @@
 package ee.markh.vaiki_backend.config;
 
+import ee.markh.vaiki_backend.dto.MovieImportRecord;
 import ee.markh.vaiki_backend.entity.Category;
 import ee.markh.vaiki_backend.entity.Movie;
 import ee.markh.vaiki_backend.repository.CategoryRepository;
-import ee.markh.vaiki_backend.repository.MovieRepository;
+import ee.markh.vaiki_backend.service.CatalogImportService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
 
 import java.util.List;
 
 /**
  * Seeds categories and movies for local development.
  * Activated with the "seed" profile.
+ * <p>
+ * The profile is checked when the runner executes rather than with {@code @Profile}: the AOT build fixes which
+ * beans exist, so a profile condition would be evaluated once at image build time and "seed" would do nothing
+ * in the image.
  */
 @Configuration
-@Profile("seed")
 public class DataSeeder {
 
     private static final Logger log = LoggerFactory.getLogger(DataSeeder.class);
 
     @Bean
     CommandLineRunner seedData(
+            Environment environment,
             CategoryRepository categoryRepository,
-            MovieRepository movieRepository,
+            CatalogImportService catalogImportService,
             @Value("${app.cloudfront.domain:}") String cloudfrontDomain) {
         return _ -> {
+            if (!environment.matchesProfiles("seed")) {
+                return;
+            }
             seedCategories(categoryRepository);
-            seedMovies(movieRepository, cloudfrontDomain);
+            seedMovies(catalogImportService, cloudfrontDomain);
         };
     }
 
@@ -68,7 +76,7 @@ public class DataSeeder {
         log.info("Seeded {} categories", categories.size());
     }
 
-    private void seedMovies(MovieRepository movieRepository, String cloudfrontDomain) {
+    private void seedMovies(CatalogImportService catalogImportService, String cloudfrontDomain) {
         log.info("Checking movies to seed...");
 
         // If cloudfrontDomain is configured, build absolute poster/backdrop URLs.
@@ -126,17 +134,10 @@ public class DataSeeder {
                         .build()
         );
 
-        int seeded = 0;
-        int skipped = 0;
-        for (Movie movie : movies) {
-            if (movieRepository.existsBySlug(movie.getSlug())) {
-                log.debug("Movie '{}' already exists, skipping", movie.getSlug());
-                skipped++;
-            } else {
-                movieRepository.save(movie);
-                seeded++;
-            }
-        }
-        log.info("Movies: seeded {}, skipped {} (already present)", seeded, skipped);
+        // Same batch writer as catalog imports; movies that already exist are left alone.
+        var result = catalogImportService.importRecords(
+                movies.stream().map(MovieImportRecord::from).iterator(),
+                CatalogImportService.Mode.SKIP_EXISTING);
+        log.info("Movies: seeded {}, skipped {} (already present)", result.written(), result.skipped());
     }
 }
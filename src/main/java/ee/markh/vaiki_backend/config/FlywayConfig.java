@@ -0,0 +1,26 @@
+package ee.markh.vaiki_backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.flyway.autoconfigure.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs the migrations on startup unless app.flyway.migrate-on-startup is false.
+ * <p>
+ * Only the Docker image's AOT cache training run turns it off (it has no database). It is a runtime switch
+ * rather than spring.flyway.enabled because the AOT build fixes auto-configuration conditions at build time.
+ */
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(
+            @Value("${app.flyway.migrate-on-startup:true}") boolean migrateOnStartup) {
+        return flyway -> {
+            if (migrateOnStartup) {
+                flyway.migrate();
+            }
+        };
+    }
+}
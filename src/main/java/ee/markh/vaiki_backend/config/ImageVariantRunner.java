@@ -0,0 +1,39 @@
+package ee.markh.vaiki_backend.config;
+
+import ee.markh.vaiki_backend.service.ImageVariantPipeline;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.nio.file.Path;
+
+/**
+ * Generates poster/backdrop variants on startup.
+ * Activated with the "images" profile, e.g.
+ * {@code --spring.profiles.active=dev,images --app.images.source=originals --app.images.output=variants --spring.main.web-application-type=none}
+ * <p>
+ * Checked at run time rather than with {@code @Profile}, which the AOT build would fix at image build time
+ * (see {@link DataSeeder}).
+ */
+@Configuration
+public class ImageVariantRunner {
+
+    @Bean
+    CommandLineRunner generateImageVariants(
+            Environment environment,
+            ImageVariantPipeline imageVariantPipeline,
+            @Value("${app.images.source:}") String source,
+            @Value("${app.images.output:}") String output) {
+        return _ -> {
+            if (!environment.matchesProfiles("images")) {
+                return;
+            }
+            if (source.isBlank() || output.isBlank()) {
+                throw new IllegalStateException("The images profile requires app.images.source and app.images.output");
+            }
+            imageVariantPipeline.run(Path.of(source), Path.of(output));
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package ee.markh.vaiki_backend.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a count is active.
+ * <p>
+ * Registered through hibernate.session_factory.statement_inspector (Hibernate instantiates it by class name),
+ * so the counter lives in a static thread-local; {@link RequestMetricsFilter} starts and stops it per request.
+ */
+public class JdbcStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /**
+     * @return statements prepared since {@link #start()}
+     */
+    static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+}
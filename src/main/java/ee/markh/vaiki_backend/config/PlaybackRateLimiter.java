@@ -0,0 +1,172 @@
+package ee.markh.vaiki_backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import ee.markh.vaiki_backend.exception.RetryLaterException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client rate limit for the endpoints that create signatures (playback URLs, cookies, proxied playlists)
+ * and for playback heartbeats, which cost one token each like a single signature.
+ * <p>
+ * Each client gets a token bucket refilling at app.rate-limit.playback.requests-per-minute with room for
+ * app.rate-limit.playback.burst requests, implemented as GCRA: the whole bucket is one "theoretical arrival time"
+ * in an {@link AtomicLong}, updated with a single compare-and-set, so the allowed path takes no locks.
+ * Buckets live in a Caffeine map bounded by app.rate-limit.max-clients and drop out once idle long enough to have
+ * refilled, so memory stays bounded no matter how many clients show up.
+ * <p>
+ * Clients are keyed by IP address (IPv6 by /64, the usual per-subscriber allocation). Behind CloudFront the
+ * connection comes from an edge server shared by many viewers, and X-Forwarded-For only resolves to that edge
+ * (its public address is not a trusted proxy), so the viewer's address is taken from the CloudFront-Viewer-Address
+ * header instead (app.rate-limit.viewer-address-header). Anyone can send that header, so it is only trusted on
+ * requests carrying the secret that the distribution adds as an origin custom header
+ * (app.rate-limit.origin-verify-header / origin-verify-secret); otherwise the address resolved by
+ * server.forward-headers-strategy is used. Not keyed by X-Viewer-Id: that is chosen by the client, so a
+ * scraper would simply rotate it. Over the limit the request fails with 429 and Retry-After.
+ */
+@Component
+public class PlaybackRateLimiter implements HandlerInterceptor {
+
+    /** Batch requests sign up to 100 URLs, most of them usually served from the signature cache. */
+    static final int BATCH_COST = 10;
+
+    private static final Map<String, Integer> COSTS = Map.of("/api/movies/playback-urls", BATCH_COST);
+
+    private final boolean enabled;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Cache<String, AtomicLong> buckets;
+    private final MeterRegistry meterRegistry;
+    private final String viewerAddressHeader;
+    private final String originVerifyHeader;
+    private final byte[] originVerifySecret;
+
+    public PlaybackRateLimiter(
+            @Value("${app.rate-limit.enabled:true}") boolean enabled,
+            @Value("${app.rate-limit.playback.requests-per-minute:30}") int requestsPerMinute,
+            @Value("${app.rate-limit.playback.burst:20}") int burst,
+            @Value("${app.rate-limit.max-clients:100000}") long maxClients,
+            @Value("${app.rate-limit.viewer-address-header:CloudFront-Viewer-Address}") String viewerAddressHeader,
+            @Value("${app.rate-limit.origin-verify-header:X-Origin-Verify}") String originVerifyHeader,
+            @Value("${app.rate-limit.origin-verify-secret:}") String originVerifySecret,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.emissionIntervalNanos = Duration.ofMinutes(1).toNanos() / Math.max(1, requestsPerMinute);
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(1, burst);
+        // A bucket idle for its full refill time is indistinguishable from a new one, so it can be dropped
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(burstToleranceNanos))
+                .recordStats()
+                .build();
+        this.meterRegistry = meterRegistry;
+        this.viewerAddressHeader = viewerAddressHeader;
+        this.originVerifyHeader = originVerifyHeader;
+        this.originVerifySecret = originVerifySecret.getBytes(StandardCharsets.UTF_8);
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rateLimitBuckets");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (CorsUtils.isPreFlightRequest(request)) {
+            return true;
+        }
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        long waitNanos = tryAcquire(clientKey(clientAddress(request)), COSTS.getOrDefault(pattern, 1));
+        if (waitNanos > 0) {
+            meterRegistry.counter("vaiki.rate-limit.rejected", "uri", pattern != null ? pattern : "UNKNOWN").increment();
+            throw new RetryLaterException(HttpStatus.TOO_MANY_REQUESTS, "Too many playback requests",
+                    Duration.ofNanos(waitNanos));
+        }
+        return true;
+    }
+
+    /**
+     * Takes {@code permits} tokens from the client's bucket.
+     *
+     * @return 0 if allowed, otherwise how long (nanoseconds) until the request would be allowed
+     */
+    public long tryAcquire(String clientKey, int permits) {
+        return tryAcquire(clientKey, permits, System.nanoTime());
+    }
+
+    long tryAcquire(String clientKey, int permits, long nowNanos) {
+        AtomicLong arrival = buckets.get(clientKey, _ -> new AtomicLong(Long.MIN_VALUE));
+        long increment = emissionIntervalNanos * permits;
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, nowNanos) + increment;
+            long waitNanos = next - nowNanos - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * The viewer's address from the CDN header when the request proves it came through our distribution,
+     * otherwise the connection's (forwarded) remote address.
+     */
+    String clientAddress(HttpServletRequest request) {
+        if (originVerifySecret.length > 0) {
+            String viewerAddress = request.getHeader(viewerAddressHeader);
+            String verify = request.getHeader(originVerifyHeader);
+            if (viewerAddress != null && verify != null
+                    && MessageDigest.isEqual(verify.getBytes(StandardCharsets.UTF_8), originVerifySecret)) {
+                return withoutPort(viewerAddress.strip());
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * CloudFront sends "address:port" for both IPv4 and (unbracketed) IPv6.
+     */
+    static String withoutPort(String viewerAddress) {
+        int separator = viewerAddress.lastIndexOf(':');
+        return separator > 0 ? viewerAddress.substring(0, separator) : viewerAddress;
+    }
+
+    /**
+     * The client's IP address, or its /64 network for IPv6.
+     */
+    static String clientKey(String remoteAddress) {
+        if (remoteAddress == null || remoteAddress.indexOf(':') < 0) {
+            return remoteAddress;
+        }
+        try {
+            byte[] address = InetAddress.ofLiteral(remoteAddress).getAddress();
+            if (address.length != 16) {
+                return remoteAddress;
+            }
+            return HexFormat.of().formatHex(Arrays.copyOf(address, 8)) + "::/64";
+        } catch (IllegalArgumentException e) {
+            return remoteAddress;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ee.markh.vaiki_backend.config;
+
+import ee.markh.vaiki_backend.exception.RetryLaterException;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps concurrent repository calls, {@code @Transactional} service calls (which hold a connection for the
+ * whole transaction) and JdbcTemplate/TransactionTemplate calls at the size of the connection pool.
+ * <p>
+ * With virtual threads, thousands of requests can reach the repositories at once; without a limit they would
+ * all queue inside Hikari until its connection timeout. Instead, request threads wait briefly for a permit
+ * (app.db.acquire-timeout) and otherwise fail fast with 503 and a Retry-After header.
+ * <p>
+ * Background work (heartbeat, resume and popularity flushes, resume loaders, imports, snapshot refreshes) goes
+ * through the same permits, so it can never hold connections that a permitted request then waits for in Hikari.
+ * It runs outside any request, so it waits for a permit instead of failing: it is not latency-bound and has
+ * nobody to send a 503 to.
+ * Nested calls on a thread that already holds a permit do not take another one.
+ */
+@Component
+public class RepositoryConcurrencyLimiter implements MethodInterceptor {
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+    private final Duration retryAfter;
+    private final ThreadLocal<Integer> depth = ThreadLocal.withInitial(() -> 0);
+
+    public RepositoryConcurrencyLimiter(
+            @Value("${app.db.max-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrency,
+            @Value("${app.db.acquire-timeout:PT0.25S}") Duration acquireTimeout,
+            @Value("${app.db.retry-after:PT1S}") Duration retryAfter) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.acquireTimeout = acquireTimeout;
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        int currentDepth = depth.get();
+        if (currentDepth > 0) {
+            return proceedNested(invocation, currentDepth);
+        }
+
+        if (RequestContextHolder.getRequestAttributes() == null) {
+            permits.acquire();
+        } else if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            throw new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE, "Database is saturated, try again shortly", retryAfter);
+        }
+        try {
+            return proceedNested(invocation, 0);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Object proceedNested(MethodInvocation invocation, int currentDepth) throws Throwable {
+        depth.set(currentDepth + 1);
+        try {
+            return invocation.proceed();
+        } finally {
+            if (currentDepth == 0) {
+                depth.remove();
+            } else {
+                depth.set(currentDepth);
+            }
+        }
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+}
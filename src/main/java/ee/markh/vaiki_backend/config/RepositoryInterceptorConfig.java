@@ -0,0 +1,86 @@
+package ee.markh.vaiki_backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Adds cross-cutting interceptors to every Spring Data repository proxy
+ * (via the factory bean's proxy post-processors, so no AOP starter is needed).
+ * The concurrency limiter runs first, so the timers measure database work rather than time spent waiting for a permit.
+ * The limiter also wraps {@code @Transactional} beans, see {@link #transactionalConcurrencyLimitAdvisor}, and the
+ * JdbcTemplate and TransactionTemplate beans that the write-behind jobs and the importer use directly.
+ */
+@Configuration
+public class RepositoryInterceptorConfig {
+
+    @Bean
+    static BeanPostProcessor repositoryInterceptorPostProcessor(
+            ObjectProvider<RepositoryConcurrencyLimiter> limiter,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> {
+                                proxyFactory.addAdvice(limiter.getObject());
+                                proxyFactory.addAdvice(new RepositoryMetricsInterceptor(meterRegistry.getObject(),
+                                        repositoryInformation.getRepositoryInterface().getSimpleName()));
+                            }));
+                }
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof JdbcTemplate || bean instanceof TransactionTemplate) {
+                    ProxyFactory proxyFactory = new ProxyFactory(bean);
+                    proxyFactory.setProxyTargetClass(true);
+                    proxyFactory.addAdvice(limiter.getObject());
+                    return proxyFactory.getProxy();
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Applies the limiter to {@code @Transactional} beans as well, outside their transaction: the transaction
+     * checks out a connection when it begins, before any repository call, so without this a saturated pool would
+     * make those requests wait for Hikari's connection timeout and fail with 500 instead of a fast 503.
+     * Repository calls inside the transaction then run as nested calls and take no second permit.
+     * Infrastructure role, so the transaction auto-proxy creator picks it up; highest precedence, so it wraps
+     * the TransactionInterceptor.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor transactionalConcurrencyLimitAdvisor(ObjectProvider<RepositoryConcurrencyLimiter> limiter) {
+        ClassFilter notRepository = type -> !Repository.class.isAssignableFrom(type);
+        ComposablePointcut transactional = new ComposablePointcut(new AnnotationMatchingPointcut(Transactional.class, true))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(Transactional.class))
+                .intersection(notRepository);
+        MethodInterceptor limit = invocation -> limiter.getObject().invoke(invocation);
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(transactional, limit);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
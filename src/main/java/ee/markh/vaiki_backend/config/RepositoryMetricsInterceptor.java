@@ -0,0 +1,56 @@
+package ee.markh.vaiki_backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call on one repository proxy as "vaiki.repository.invocations",
+ * tagged with the repository interface, the method name and the exception (or "none").
+ */
+class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final String repository;
+    private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+
+    RepositoryMetricsInterceptor(MeterRegistry meterRegistry, String repository) {
+        this.meterRegistry = meterRegistry;
+        this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (method.getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+
+        long started = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            successTimers.computeIfAbsent(method, m -> timer(m, "none"))
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(method, e.getClass().getSimpleName()).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(Method method, String exception) {
+        return Timer.builder("vaiki.repository.invocations")
+                .description("Spring Data repository method latency")
+                .tag("repository", repository)
+                .tag("method", method.getName())
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
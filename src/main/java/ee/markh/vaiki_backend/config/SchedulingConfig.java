@@ -0,0 +1,12 @@
+package ee.markh.vaiki_backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (e.g. periodic catalog snapshot refresh).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
@@ -13,7 +14,7 @@ public class WebConfig {
     private String[] frontendUrls;
 
     @Bean
-    public WebMvcConfigurer corsConfigurer() {
+    public WebMvcConfigurer corsConfigurer(PlaybackRateLimiter playbackRateLimiter) {
         return new WebMvcConfigurer() {
             @Override
             public void addCorsMappings(CorsRegistry registry) {
@@ -21,9 +22,25 @@ public class WebConfig {
                         .allowedOrigins(frontendUrls)
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
-                        .allowCredentials(true);
+                        .allowCredentials(true)
+                        // Browsers reuse a preflight for this long instead of sending one per request
+                        .maxAge(3600);
+            }
+
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                if (playbackRateLimiter.isEnabled()) {
+                    // Everything that creates a CloudFront signature, and heartbeats: their session ids are
+                    // chosen by the client, so unthrottled they could fill the heartbeat buffer for everyone
+                    registry.addInterceptor(playbackRateLimiter)
+                            .addPathPatterns(
+                                    "/api/movies/*/playback-url",
+                                    "/api/movies/*/playback-cookies",
+                                    "/api/movies/playback-urls",
+                                    "/api/hls/**",
+                                    "/api/playback/heartbeat");
+                }
             }
         };
     }
 }
-
@@ -0,0 +1,97 @@
+package ee.markh.vaiki_backend.controller;
+
+import ee.markh.vaiki_backend.dto.CatalogStatusDto;
+import ee.markh.vaiki_backend.dto.ImportResultDto;
+import ee.markh.vaiki_backend.service.CatalogImportService;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.core.JacksonException;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Operational endpoints guarded by a shared admin token (X-Admin-Token header).
+ * If app.admin.token is not configured, all admin endpoints respond with 404.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    static final String ADMIN_TOKEN_HEADER = "X-Admin-Token";
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final CatalogImportService catalogImportService;
+    private final String adminToken;
+
+    public AdminController(
+            CatalogSnapshotService catalogSnapshotService,
+            CatalogImportService catalogImportService,
+            @Value("${app.admin.token:}") String adminToken) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.catalogImportService = catalogImportService;
+        this.adminToken = adminToken;
+    }
+
+    /**
+     * GET /api/admin/catalog - Describe the currently served catalog snapshot
+     */
+    @GetMapping("/catalog")
+    public CatalogStatusDto getCatalogStatus(@RequestHeader(name = ADMIN_TOKEN_HEADER, required = false) String token) {
+        requireAdmin(token);
+        return CatalogStatusDto.from(catalogSnapshotService.current());
+    }
+
+    /**
+     * POST /api/admin/catalog/reload - Rebuild the catalog snapshot from the database
+     */
+    @PostMapping("/catalog/reload")
+    public CatalogStatusDto reloadCatalog(@RequestHeader(name = ADMIN_TOKEN_HEADER, required = false) String token) {
+        requireAdmin(token);
+        return CatalogStatusDto.from(catalogSnapshotService.refresh());
+    }
+
+    /**
+     * POST /api/admin/catalog/import?mode=upsert - Stream a JSON Lines catalog (one movie per line) into the database
+     * <p>
+     * The request body is read incrementally and written in batches; the snapshot is rebuilt afterwards.
+     *
+     * @param mode  "upsert" (overwrite existing slugs) or "skip-existing"
+     */
+    @PostMapping(path = "/catalog/import", consumes = {"application/x-ndjson", "application/jsonl", "text/plain"})
+    public ImportResultDto importCatalog(
+            @RequestHeader(name = ADMIN_TOKEN_HEADER, required = false) String token,
+            @RequestParam(defaultValue = "upsert") String mode,
+            InputStream body) {
+        requireAdmin(token);
+        CatalogImportService.Mode importMode;
+        try {
+            importMode = CatalogImportService.Mode.parse(mode);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown mode: " + mode);
+        }
+
+        ImportResultDto result;
+        try {
+            result = catalogImportService.importJsonl(body, importMode);
+        } catch (JacksonException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed import line: " + e.getOriginalMessage());
+        }
+        catalogSnapshotService.refresh();
+        return result;
+    }
+
+    private void requireAdmin(String token) {
+        if (adminToken == null || adminToken.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        if (token == null || !MessageDigest.isEqual(
+                adminToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid admin token");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ee.markh.vaiki_backend.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Cache-Control policies per kind of endpoint, configured under app.http-cache.
+ * <p>
+ * Catalog and listing responses are the same for everyone, so the CDN and browsers may keep them for max-age and
+ * then keep serving them for stale-while-revalidate while one request refreshes them in the background (and for
+ * stale-if-error if the API is down). A max-age of zero turns caching off for that kind. Error responses carry no
+ * policy and are never cached. Responses that are signed or per viewer never go into shared caches.
+ */
+@Component
+public class CachePolicies {
+
+    /** Signed playback URLs are cached privately only while they stay valid for at least this long. */
+    private static final Duration MIN_REMAINING_VALIDITY = Duration.ofMinutes(1);
+
+    private final CacheControl catalog;
+    private final CacheControl listing;
+    private final Duration playbackMaxAge;
+
+    public CachePolicies(
+            @Value("${app.http-cache.catalog.max-age:PT1M}") Duration catalogMaxAge,
+            @Value("${app.http-cache.catalog.stale-while-revalidate:PT5M}") Duration catalogStaleWhileRevalidate,
+            @Value("${app.http-cache.listing.max-age:PT30S}") Duration listingMaxAge,
+            @Value("${app.http-cache.listing.stale-while-revalidate:PT1M}") Duration listingStaleWhileRevalidate,
+            @Value("${app.http-cache.stale-if-error:PT24H}") Duration staleIfError,
+            @Value("${app.http-cache.playback.max-age:PT0S}") Duration playbackMaxAge) {
+        this.catalog = shared(catalogMaxAge, catalogStaleWhileRevalidate, staleIfError);
+        this.listing = shared(listingMaxAge, listingStaleWhileRevalidate, staleIfError);
+        this.playbackMaxAge = playbackMaxAge;
+    }
+
+    private static CacheControl shared(Duration maxAge, Duration staleWhileRevalidate, Duration staleIfError) {
+        if (maxAge.isZero() || maxAge.isNegative()) {
+            return CacheControl.noCache();
+        }
+        return CacheControl.maxAge(maxAge)
+                .cachePublic()
+                .staleWhileRevalidate(staleWhileRevalidate)
+                .staleIfError(staleIfError);
+    }
+
+    /**
+     * Whole-catalog documents: all movies, one movie, the featured movie, categories.
+     */
+    public CacheControl catalog() {
+        return catalog;
+    }
+
+    /**
+     * Pages, search results, trending and home rows: built per request from the catalog, so kept more briefly.
+     */
+    public CacheControl listing() {
+        return listing;
+    }
+
+    /**
+     * Signed URLs: never stored by shared caches, and by the browser (app.http-cache.playback.max-age, off by
+     * default) at most until a minute before the signature expires.
+     */
+    public CacheControl signed(Instant expiresAt) {
+        Duration remaining = Duration.between(Instant.now(), expiresAt).minus(MIN_REMAINING_VALIDITY);
+        Duration maxAge = playbackMaxAge.compareTo(remaining) < 0 ? playbackMaxAge : remaining;
+        if (maxAge.isZero() || maxAge.isNegative()) {
+            return CacheControl.noStore().cachePrivate();
+        }
+        return CacheControl.maxAge(maxAge).cachePrivate();
+    }
+
+    /**
+     * Per-viewer data and responses that set cookies.
+     */
+    public CacheControl personal() {
+        return CacheControl.noStore().cachePrivate();
+    }
+}
@@ -1,31 +1,64 @@
 package ee.markh.vaiki_backend.controller;
 
-import ee.markh.vaiki_backend.dto.CategoryDto;
-import ee.markh.vaiki_backend.repository.CategoryRepository;
+import ee.markh.vaiki_backend.dto.MovieCardDto;
+import ee.markh.vaiki_backend.dto.MoviePageDto;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService;
+import ee.markh.vaiki_backend.service.MovieListingService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-
-import java.util.List;
+import org.springframework.web.server.ResponseStatusException;
 
 @RestController
 @RequestMapping("/api/categories")
 public class CategoryController {
 
-    private final CategoryRepository categoryRepository;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final MovieListingService movieListingService;
+    private final CachePolicies cachePolicies;
 
-    public CategoryController(CategoryRepository categoryRepository) {
-        this.categoryRepository = categoryRepository;
+    public CategoryController(
+            CatalogSnapshotService catalogSnapshotService,
+            MovieListingService movieListingService,
+            CachePolicies cachePolicies) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.movieListingService = movieListingService;
+        this.cachePolicies = cachePolicies;
     }
 
     /**
-     * GET /api/categories - List all visible categories ordered by orderIndex
+     * GET /api/categories - List all visible categories ordered by orderIndex (JSON array of CategoryDto)
      */
     @GetMapping
-    public List<CategoryDto> getAllCategories() {
-        return categoryRepository.findByVisibleTrueOrderByOrderIndex()
-                .stream()
-                .map(CategoryDto::from)
-                .toList();
+    public ResponseEntity<byte[]> getAllCategories(@RequestHeader HttpHeaders headers) {
+        return EncodedJsonResponses.ok(catalogSnapshotService.current().categoriesJson(), headers, cachePolicies.catalog());
+    }
+
+    /**
+     * GET /api/categories/{slug}/movies - Keyset-paginated movie cards in a visible category
+     *
+     * @param slug    Category slug
+     * @param limit   Page size (1-100)
+     * @param cursor  Optional cursor from the previous page
+     */
+    @GetMapping("/{slug}/movies")
+    public ResponseEntity<MoviePageDto<MovieCardDto>> getCategoryMovies(
+            @PathVariable String slug,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor) {
+        boolean visible = catalogSnapshotService.current().categories().stream()
+                .anyMatch(category -> category.slug().equals(slug));
+        if (!visible) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found: " + slug);
+        }
+        return ResponseEntity.ok()
+                .cacheControl(cachePolicies.listing())
+                .body(movieListingService.categoryCards(slug, cursor, limit));
     }
 }
@@ -0,0 +1,119 @@
+package ee.markh.vaiki_backend.controller;
+
+import ee.markh.vaiki_backend.service.EncodedJson;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Builds responses from pre-encoded JSON bodies: picks the best content-coding the client accepts,
+ * sets a strong ETag and answers matching If-None-Match requests with 304 and no body.
+ * <p>
+ * The 304 carries the same Cache-Control as the full response, so a revalidated copy is kept for another max-age.
+ * Vary lists only Accept-Encoding here; Spring merges it with the Origin entries the CORS processor adds.
+ */
+final class EncodedJsonResponses {
+
+    private static final String BROTLI = "br";
+    private static final String GZIP = "gzip";
+
+    private EncodedJsonResponses() {
+    }
+
+    static ResponseEntity<byte[]> ok(EncodedJson body, HttpHeaders requestHeaders, CacheControl cacheControl) {
+        if (matchesIfNoneMatch(body, requestHeaders.getIfNoneMatch())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(body.etag(negotiate(body, requestHeaders)))
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        String coding = negotiate(body, requestHeaders);
+        byte[] bytes = switch (coding) {
+            case BROTLI -> body.brotli();
+            case GZIP -> body.gzip();
+            case null, default -> body.identity();
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(bytes.length)
+                .eTag(body.etag(coding))
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (coding != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, coding);
+        }
+        return response.body(bytes);
+    }
+
+    /**
+     * If-None-Match uses weak comparison, and any of our per-coding tags identifies the same content.
+     */
+    private static boolean matchesIfNoneMatch(EncodedJson body, List<String> ifNoneMatch) {
+        for (String tag : ifNoneMatch) {
+            if (tag.equals("*")) {
+                return true;
+            }
+            String opaque = tag.startsWith("W/") ? tag.substring(2) : tag;
+            if (opaque.equals(body.etag()) || opaque.equals(body.etag(GZIP)) || opaque.equals(body.etag(BROTLI))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return "br", "gzip" or null for identity
+     */
+    private static String negotiate(EncodedJson body, HttpHeaders requestHeaders) {
+        String acceptEncoding = requestHeaders.getFirst(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        double brotliQ = Double.NaN;
+        double gzipQ = Double.NaN;
+        double wildcardQ = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            double q = quality(tokens);
+            switch (tokens[0].trim().toLowerCase()) {
+                case BROTLI -> brotliQ = q;
+                case GZIP, "x-gzip" -> gzipQ = q;
+                case "*" -> wildcardQ = q;
+                default -> {
+                }
+            }
+        }
+        // Codings not listed explicitly fall back to the "*" entry, if any.
+        brotliQ = Double.isNaN(brotliQ) ? wildcardQ : brotliQ;
+        gzipQ = Double.isNaN(gzipQ) ? wildcardQ : gzipQ;
+
+        if (body.brotli() != null && brotliQ > 0 && brotliQ >= gzipQ) {
+            return BROTLI;
+        }
+        if (body.gzip() != null && gzipQ > 0) {
+            return GZIP;
+        }
+        return null;
+    }
+
+    private static double quality(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String param = tokens[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
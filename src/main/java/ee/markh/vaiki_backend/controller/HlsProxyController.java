@@ -0,0 +1,77 @@
+package ee.markh.vaiki_backend.controller;
+
+import ee.markh.vaiki_backend.dto.MovieDto;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService.CatalogSnapshot;
+import ee.markh.vaiki_backend.service.HlsManifestProxy;
+import ee.markh.vaiki_backend.service.PopularityService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/hls")
+@ConditionalOnProperty(name = "app.hls-proxy.enabled", havingValue = "true")
+public class HlsProxyController {
+
+    private static final MediaType MPEGURL = MediaType.parseMediaType("application/vnd.apple.mpegurl");
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final HlsManifestProxy hlsManifestProxy;
+    private final PopularityService popularityService;
+    private final CachePolicies cachePolicies;
+    private final MeterRegistry meterRegistry;
+
+    public HlsProxyController(
+            CatalogSnapshotService catalogSnapshotService,
+            HlsManifestProxy hlsManifestProxy,
+            PopularityService popularityService,
+            CachePolicies cachePolicies,
+            MeterRegistry meterRegistry) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.hlsManifestProxy = hlsManifestProxy;
+        this.popularityService = popularityService;
+        this.cachePolicies = cachePolicies;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * GET /api/hls/{slug}/{path} - Movie playlist with signed segment URLs (e.g. /api/hls/metropolis/master.m3u8)
+     * <p>
+     * Only enabled with app.hls-proxy.enabled. Variant playlists referenced by the master point back at this endpoint.
+     * The body contains signatures, so it must not be cached by shared caches.
+     *
+     * @param slug    Movie slug
+     * @param path    Playlist path relative to the directory of the movie's master playlist
+     */
+    @GetMapping("/{slug}/{*path}")
+    public ResponseEntity<StreamingResponseBody> getManifest(@PathVariable String slug, @PathVariable String path) {
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        String hlsPath = catalog.hlsPathsBySlug().get(slug);
+        if (hlsPath == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No HLS content available for: " + slug);
+        }
+
+        Integer durationMinutes = catalog.findMovie(slug).map(MovieDto::durationMinutes).orElse(null);
+        HlsManifestProxy.ManifestBody manifest = hlsManifestProxy.manifest(slug, hlsPath, durationMinutes, path)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Playlist not found: " + path));
+
+        if (hlsPath.endsWith(path)) {
+            // The master playlist: count it like a playback URL request
+            meterRegistry.counter("vaiki.playback.requests", "slug", slug, "delivery", "proxy").increment();
+            popularityService.record(slug);
+        }
+        return ResponseEntity.ok()
+                .contentType(MPEGURL)
+                .cacheControl(cachePolicies.personal())
+                .body(manifest::writeTo);
+    }
+}
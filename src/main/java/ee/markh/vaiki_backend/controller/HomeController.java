@@ -0,0 +1,81 @@
+package ee.markh.vaiki_backend.controller;
+
+import ee.markh.vaiki_backend.dto.CategoryDto;
+import ee.markh.vaiki_backend.dto.HomeRowDto;
+import ee.markh.vaiki_backend.dto.MovieCardDto;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService.CatalogSnapshot;
+import ee.markh.vaiki_backend.service.MovieListingService;
+import ee.markh.vaiki_backend.service.PopularityService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+@RestController
+@RequestMapping("/api/home")
+public class HomeController {
+
+    /** Synthetic category of the trending row; not stored in the categories table. */
+    private static final CategoryDto TRENDING = new CategoryDto("trending", "Trending", -1);
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final MovieListingService movieListingService;
+    private final PopularityService popularityService;
+    private final boolean trendingRowEnabled;
+    private final CachePolicies cachePolicies;
+
+    public HomeController(
+            CatalogSnapshotService catalogSnapshotService,
+            MovieListingService movieListingService,
+            PopularityService popularityService,
+            @Value("${app.popularity.home-row-enabled:false}") boolean trendingRowEnabled,
+            CachePolicies cachePolicies) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.movieListingService = movieListingService;
+        this.popularityService = popularityService;
+        this.trendingRowEnabled = trendingRowEnabled;
+        this.cachePolicies = cachePolicies;
+    }
+
+    /**
+     * GET /api/home - Every visible category (ordered by orderIndex) with its first movies,
+     * preceded by a "Trending" row (24h window) when app.popularity.home-row-enabled is set and anything is trending
+     *
+     * @param perRow  Movies per category row (1-100)
+     */
+    @GetMapping
+    public ResponseEntity<List<HomeRowDto>> getHome(@RequestParam(defaultValue = "20") int perRow) {
+        return ResponseEntity.ok()
+                .cacheControl(cachePolicies.listing())
+                .body(homeRows(perRow));
+    }
+
+    private List<HomeRowDto> homeRows(int perRow) {
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        List<HomeRowDto> categoryRows = movieListingService.homeRows(catalog.categories(), perRow);
+        if (!trendingRowEnabled) {
+            return categoryRows;
+        }
+
+        List<MovieCardDto> trending = popularityService.top(PopularityService.Window.DAY).stream()
+                .map(ranked -> catalog.moviesBySlug().get(ranked.slug()))
+                .filter(Objects::nonNull)
+                .limit(Math.clamp(perRow, 1, MovieListingService.MAX_PAGE_SIZE))
+                .map(MovieCardDto::from)
+                .toList();
+        if (trending.isEmpty()) {
+            return categoryRows;
+        }
+        List<HomeRowDto> rows = new ArrayList<>(categoryRows.size() + 1);
+        rows.add(new HomeRowDto(TRENDING, trending));
+        rows.addAll(categoryRows);
+        return rows;
+    }
+}
@@ -1,80 +1,296 @@
 package ee.markh.vaiki_backend.controller;
 
-import ee.markh.vaiki_backend.dto.MovieDto;
+import ee.markh.vaiki_backend.dto.MovieCardDto;
+import ee.markh.vaiki_backend.dto.MoviePageDto;
+import ee.markh.vaiki_backend.dto.PlaybackUrlBatchRequest;
+import ee.markh.vaiki_backend.dto.PlaybackUrlBatchResponse;
 import ee.markh.vaiki_backend.dto.PlaybackUrlResponse;
-import ee.markh.vaiki_backend.entity.Movie;
-import ee.markh.vaiki_backend.repository.MovieRepository;
-import ee.markh.vaiki_backend.service.CloudFrontSignerService;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService.CatalogSnapshot;
+import ee.markh.vaiki_backend.service.CloudFrontSignerService.SignedCookiesResult;
 import ee.markh.vaiki_backend.service.CloudFrontSignerService.SignedUrlResult;
+import ee.markh.vaiki_backend.service.EncodedJson;
+import ee.markh.vaiki_backend.service.MovieListingService;
+import ee.markh.vaiki_backend.service.MovieSearchService;
+import ee.markh.vaiki_backend.service.PopularityService;
+import ee.markh.vaiki_backend.service.ResumePositionStore;
+import ee.markh.vaiki_backend.service.ResumePositionStore.Position;
+import ee.markh.vaiki_backend.service.SignedUrlCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/movies")
 public class MovieController {
 
-    private final MovieRepository movieRepository;
-    private final CloudFrontSignerService cloudFrontSignerService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final MovieListingService movieListingService;
+    private final MovieSearchService movieSearchService;
+    private final SignedUrlCache signedUrlCache;
+    private final ResumePositionStore resumePositionStore;
+    private final PopularityService popularityService;
+    private final String cookieDomain;
+    private final CachePolicies cachePolicies;
+    private final MeterRegistry meterRegistry;
 
-    public MovieController(MovieRepository movieRepository, CloudFrontSignerService cloudFrontSignerService) {
-        this.movieRepository = movieRepository;
-        this.cloudFrontSignerService = cloudFrontSignerService;
+    public MovieController(
+            CatalogSnapshotService catalogSnapshotService,
+            MovieListingService movieListingService,
+            MovieSearchService movieSearchService,
+            SignedUrlCache signedUrlCache,
+            ResumePositionStore resumePositionStore,
+            PopularityService popularityService,
+            @Value("${app.cloudfront.cookie-domain:}") String cookieDomain,
+            CachePolicies cachePolicies,
+            MeterRegistry meterRegistry) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.movieListingService = movieListingService;
+        this.movieSearchService = movieSearchService;
+        this.signedUrlCache = signedUrlCache;
+        this.resumePositionStore = resumePositionStore;
+        this.popularityService = popularityService;
+        this.cookieDomain = cookieDomain;
+        this.cachePolicies = cachePolicies;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
-     * GET /api/movies - List all movies
+     * GET /api/movies - List all movies (JSON array of MovieDto, pre-encoded per catalog version)
      */
     @GetMapping
-    public List<MovieDto> getAllMovies() {
-        return movieRepository.findAll()
+    public ResponseEntity<byte[]> getAllMovies(@RequestHeader HttpHeaders headers) {
+        return EncodedJsonResponses.ok(catalogSnapshotService.current().moviesJson(), headers, cachePolicies.catalog());
+    }
+
+    /**
+     * GET /api/movies?limit=20[&cursor=...][&fields=slug,title] - Keyset-paginated listing
+     * <p>
+     * Without {@code fields}, items are {@link MovieCardDto}s. With {@code fields}, each item contains only
+     * the requested fields. Pass the returned {@code nextCursor} as {@code cursor} to fetch the next page.
+     *
+     * @param limit   Page size (1-100)
+     * @param cursor  Optional cursor from the previous page
+     * @param fields  Optional comma-separated field list
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<MoviePageDto<?>> getMoviePage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return listing(movieListingService.cards(cursor, limit));
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        fields.forEach(field -> selected.add(field.trim()));
+        return listing(movieListingService.projected(cursor, limit, selected));
+    }
+
+    /**
+     * GET /api/movies/search?q=... - Type-ahead search over title, director, country, description and categories
+     * <p>
+     * Served from an in-memory index: diacritic-insensitive, with prefix and typo tolerance.
+     *
+     * @param q       Search text
+     * @param limit   Maximum number of results (1-50)
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<MovieCardDto>> searchMovies(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return listing(movieSearchService.search(q, Math.clamp(limit, 1, 50))
                 .stream()
-                .map(MovieDto::from)
-                .toList();
+                .map(MovieCardDto::from)
+                .toList());
+    }
+
+    /**
+     * GET /api/movies/trending?window=24h&limit=20 - Most requested movies over a decaying window
+     *
+     * @param window  1h, 24h or 7d
+     * @param limit   Maximum number of results (1-50)
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<List<MovieCardDto>> getTrending(
+            @RequestParam(defaultValue = "24h") String window,
+            @RequestParam(defaultValue = "20") int limit) {
+        PopularityService.Window trendingWindow = PopularityService.Window.fromLabel(window)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Unknown window: " + window + " (use 1h, 24h or 7d)"));
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        return listing(popularityService.top(trendingWindow).stream()
+                .map(ranked -> catalog.moviesBySlug().get(ranked.slug()))
+                .filter(Objects::nonNull)
+                .limit(Math.clamp(limit, 1, 50))
+                .map(MovieCardDto::from)
+                .toList());
     }
 
     /**
-     * GET /api/movies/{slug} - Get movie by slug
+     * GET /api/movies/{slug} - Get movie by slug (MovieDto)
      */
     @GetMapping("/{slug}")
-    public MovieDto getMovieBySlug(@PathVariable String slug) {
-        Movie movie = movieRepository.findBySlug(slug)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Movie not found: " + slug));
-        return MovieDto.from(movie);
+    public ResponseEntity<byte[]> getMovieBySlug(@PathVariable String slug, @RequestHeader HttpHeaders headers) {
+        EncodedJson movie = catalogSnapshotService.movieJson(slug)
+                .orElseThrow(() -> movieNotFound(slug, "movie"));
+        return EncodedJsonResponses.ok(movie, headers, cachePolicies.catalog());
     }
 
     /**
      * GET /api/movies/{slug}/playback-url - Get signed CloudFront playback URL
+     * <p>
+     * With an X-Viewer-Id header the response includes the viewer's resume position when it is already in memory
+     * (never looked up synchronously; a miss loads it in the background). Never cached by shared caches, and by
+     * the browser no longer than the signature stays valid.
      *
      * @param slug    Movie slug
      * @param ttl     Optional TTL in seconds (overrides default)
      */
     @GetMapping("/{slug}/playback-url")
-    public PlaybackUrlResponse getPlaybackUrl(
+    public ResponseEntity<PlaybackUrlResponse> getPlaybackUrl(
             @PathVariable String slug,
-            @RequestParam(required = false) Integer ttl) throws Exception {
+            @RequestParam(required = false) Integer ttl,
+            @RequestHeader(name = ViewerIds.HEADER, required = false) String viewerId) {
 
-        Movie movie = movieRepository.findBySlug(slug)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Movie not found: " + slug));
+        // Before signing and counting, so a malformed header is a 400 that leaves no trace
+        String viewer = ViewerIds.validate(viewerId);
+        String hlsPath = requireHlsPath(catalogSnapshotService.current(), slug, "playback-url");
+        SignedUrlResult result = signedUrlCache.getSignedUrl(hlsPath, ttl);
+        countPlayback(slug, "url");
+        popularityService.record(slug);
 
-        if (movie.getHlsPath() == null || movie.getHlsPath().isBlank()) {
+        Integer resumePosition = viewer == null ? null : resumePositionStore.peek(viewer, slug)
+                .map(Position::positionSeconds)
+                .orElse(null);
+        return ResponseEntity.ok()
+                .cacheControl(cachePolicies.signed(result.expiresAt()))
+                .body(new PlaybackUrlResponse(result.url(), result.expiresAt(), resumePosition));
+    }
+
+    /**
+     * POST /api/movies/playback-urls - Get signed playback URLs for several movies in one round trip
+     * <p>
+     * Slugs are resolved against the in-memory catalog and signed one after another on the request thread. Most hit
+     * the signature cache and a fresh signature costs about a millisecond, so a full batch of 100 does not justify
+     * borrowing the JVM-wide common pool from every other request. Unknown slugs are listed in {@code missing}.
+     */
+    @PostMapping("/playback-urls")
+    public PlaybackUrlBatchResponse getPlaybackUrls(@Valid @RequestBody PlaybackUrlBatchRequest request) {
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+
+        Map<String, PlaybackUrlResponse> urls = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String slug : new LinkedHashSet<>(request.slugs())) {
+            String hlsPath = catalog.hlsPathsBySlug().get(slug);
+            if (hlsPath == null) {
+                missing.add(slug);
+                continue;
+            }
+            SignedUrlResult result = signedUrlCache.getSignedUrl(hlsPath, request.ttl());
+            urls.put(slug, new PlaybackUrlResponse(result.url(), result.expiresAt()));
+            countPlayback(slug, "batch");
+        }
+        return new PlaybackUrlBatchResponse(urls, missing);
+    }
+
+    /**
+     * GET /api/movies/{slug}/playback-cookies - Set CloudFront signed cookies covering the movie's whole HLS directory
+     * <p>
+     * Uses a custom policy with a wildcard resource (e.g. "/metropolis/*"), so one signature covers the master
+     * playlist, every variant playlist and every segment. The response body carries the unsigned master playlist URL.
+     * Requires the CloudFront distribution to be served from a subdomain of app.cloudfront.cookie-domain.
+     *
+     * @param slug    Movie slug
+     * @param ttl     Optional TTL in seconds (overrides default)
+     */
+    @GetMapping("/{slug}/playback-cookies")
+    public ResponseEntity<PlaybackUrlResponse> getPlaybackCookies(
+            @PathVariable String slug,
+            @RequestParam(required = false) Integer ttl) {
+
+        if (cookieDomain == null || cookieDomain.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Signed cookies are not enabled");
+        }
+
+        String hlsPath = requireHlsPath(catalogSnapshotService.current(), slug, "playback-cookies");
+        String directory = hlsPath.substring(0, hlsPath.lastIndexOf('/') + 1);
+        SignedCookiesResult result = signedUrlCache.getSignedCookies(directory + "*", ttl);
+        countPlayback(slug, "cookies");
+
+        Duration maxAge = Duration.between(Instant.now(), result.expiresAt());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(cachePolicies.personal());
+        result.cookies().forEach((name, value) -> response.header(HttpHeaders.SET_COOKIE,
+                ResponseCookie.from(name, value)
+                        .domain(cookieDomain)
+                        .path(directory)
+                        .maxAge(maxAge)
+                        .secure(true)
+                        .httpOnly(true)
+                        .sameSite("None")
+                        .build()
+                        .toString()));
+
+        String masterUrl = "https://" + signedUrlCache.getDistributionDomain() + hlsPath;
+        return response.body(new PlaybackUrlResponse(masterUrl, result.expiresAt()));
+    }
+
+    private String requireHlsPath(CatalogSnapshot catalog, String slug, String endpoint) {
+        if (catalog.findMovie(slug).isEmpty()) {
+            throw movieNotFound(slug, endpoint);
+        }
+
+        String hlsPath = catalog.hlsPathsBySlug().get(slug);
+        if (hlsPath == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No HLS content available for: " + slug);
         }
+        return hlsPath;
+    }
+
+    private <T> ResponseEntity<T> listing(T body) {
+        return ResponseEntity.ok().cacheControl(cachePolicies.listing()).body(body);
+    }
 
-        SignedUrlResult result = cloudFrontSignerService.getSignedUrl(movie.getHlsPath(), ttl);
+    /**
+     * Counted per endpoint only: unknown slugs are client input, so tagging by slug would be unbounded.
+     */
+    private ResponseStatusException movieNotFound(String slug, String endpoint) {
+        meterRegistry.counter("vaiki.movies.not.found", "endpoint", endpoint).increment();
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Movie not found: " + slug);
+    }
 
-        return new PlaybackUrlResponse(result.url(), result.expiresAt());
+    /**
+     * Only called for slugs in the catalog, which keeps the slug tag's cardinality bounded.
+     */
+    private void countPlayback(String slug, String delivery) {
+        meterRegistry.counter("vaiki.playback.requests", "slug", slug, "delivery", delivery).increment();
     }
 
+    /**
+     * GET /api/movies/featured - Get the featured movie (MovieDto), or 204 if none is flagged
+     */
     @GetMapping("/featured")
-    public ResponseEntity<MovieDto> getFeatured() {
-        return movieRepository.findFirstByFeaturedTrue()
-                .map(movie -> ResponseEntity.ok(MovieDto.from(movie)))
-                .orElse(ResponseEntity.noContent().build());
+    public ResponseEntity<byte[]> getFeatured(@RequestHeader HttpHeaders headers) {
+        EncodedJson featured = catalogSnapshotService.current().featuredJson();
+        if (featured == null) {
+            return ResponseEntity.noContent().cacheControl(cachePolicies.catalog()).build();
+        }
+        return EncodedJsonResponses.ok(featured, headers, cachePolicies.catalog());
     }
 
 }
-
@@ -0,0 +1,52 @@
+package ee.markh.vaiki_backend.controller;
+
+import ee.markh.vaiki_backend.dto.HeartbeatRequest;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService;
+import ee.markh.vaiki_backend.service.HeartbeatBuffer;
+import ee.markh.vaiki_backend.service.ResumePositionStore;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/playback")
+public class PlaybackController {
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final HeartbeatBuffer heartbeatBuffer;
+    private final ResumePositionStore resumePositionStore;
+
+    public PlaybackController(
+            CatalogSnapshotService catalogSnapshotService,
+            HeartbeatBuffer heartbeatBuffer,
+            ResumePositionStore resumePositionStore) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.heartbeatBuffer = heartbeatBuffer;
+        this.resumePositionStore = resumePositionStore;
+    }
+
+    /**
+     * POST /api/playback/heartbeat - Report playback progress (called by the player every few seconds)
+     * <p>
+     * Buffered in memory and persisted in batches, so the response (202) never waits for the database.
+     * With an X-Viewer-Id header the position is also saved as the viewer's resume position.
+     */
+    @PostMapping("/heartbeat")
+    public ResponseEntity<Void> heartbeat(
+            @Valid @RequestBody HeartbeatRequest request,
+            @RequestHeader(name = ViewerIds.HEADER, required = false) String viewerId) {
+        if (catalogSnapshotService.current().findMovie(request.movieSlug()).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Movie not found: " + request.movieSlug());
+        }
+        String viewer = ViewerIds.validate(viewerId);
+        // Resume position first: it is latest-wins, so a retry after the heartbeat buffer answers 503 is harmless,
+        // whereas a heartbeat recorded before a rejected resume position would be counted twice on retry
+        if (viewer != null) {
+            resumePositionStore.record(viewer, request.movieSlug(), request.positionSeconds());
+        }
+        heartbeatBuffer.record(request);
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -0,0 +1,75 @@
+package ee.markh.vaiki_backend.controller;
+
+import ee.markh.vaiki_backend.dto.ContinueWatchingDto;
+import ee.markh.vaiki_backend.dto.MovieCardDto;
+import ee.markh.vaiki_backend.dto.MovieDto;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService.CatalogSnapshot;
+import ee.markh.vaiki_backend.service.ResumePositionStore;
+import ee.markh.vaiki_backend.service.ResumePositionStore.Position;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/me")
+public class ViewerController {
+
+    /** Positions this close to the start are treated as not started. */
+    private static final int MIN_POSITION_SECONDS = 30;
+    /** Movies watched past this share of their duration are treated as finished. */
+    private static final double FINISHED_FRACTION = 0.95;
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ResumePositionStore resumePositionStore;
+    private final CachePolicies cachePolicies;
+
+    public ViewerController(
+            CatalogSnapshotService catalogSnapshotService,
+            ResumePositionStore resumePositionStore,
+            CachePolicies cachePolicies) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.resumePositionStore = resumePositionStore;
+        this.cachePolicies = cachePolicies;
+    }
+
+    /**
+     * GET /api/me/continue-watching?limit=20 - Partially watched movies, most recent first (requires X-Viewer-Id)
+     */
+    @GetMapping("/continue-watching")
+    public CompletableFuture<ResponseEntity<List<ContinueWatchingDto>>> getContinueWatching(
+            @RequestHeader(ViewerIds.HEADER) String viewerId,
+            @RequestParam(defaultValue = "20") int limit) {
+        int rowSize = Math.clamp(limit, 1, 50);
+        return resumePositionStore.recent(ViewerIds.validate(viewerId))
+                .thenApply(positions -> ResponseEntity.ok()
+                        .cacheControl(cachePolicies.personal())
+                        .body(continueWatching(catalogSnapshotService.current(), positions, rowSize)));
+    }
+
+    private static List<ContinueWatchingDto> continueWatching(
+            CatalogSnapshot catalog, List<Map.Entry<String, Position>> positions, int limit) {
+        List<ContinueWatchingDto> row = new ArrayList<>(limit);
+        for (Map.Entry<String, Position> entry : positions) {
+            MovieDto movie = catalog.moviesBySlug().get(entry.getKey());
+            Position position = entry.getValue();
+            if (movie == null || position.positionSeconds() < MIN_POSITION_SECONDS || isFinished(movie, position)) {
+                continue;
+            }
+            row.add(new ContinueWatchingDto(MovieCardDto.from(movie), position.positionSeconds(), position.updatedAt()));
+            if (row.size() == limit) {
+                break;
+            }
+        }
+        return row;
+    }
+
+    private static boolean isFinished(MovieDto movie, Position position) {
+        return movie.durationMinutes() != null
+                && position.positionSeconds() >= movie.durationMinutes() * 60 * FINISHED_FRACTION;
+    }
+}
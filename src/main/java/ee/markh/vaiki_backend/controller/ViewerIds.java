@@ -0,0 +1,33 @@
+package ee.markh.vaiki_backend.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.regex.Pattern;
+
+/**
+ * Anonymous viewer ids: generated by the frontend, kept in local storage and sent in the X-Viewer-Id header.
+ */
+final class ViewerIds {
+
+    static final String HEADER = "X-Viewer-Id";
+
+    private static final Pattern VALID = Pattern.compile("[A-Za-z0-9_-]{8,64}");
+
+    private ViewerIds() {
+    }
+
+    /**
+     * @return the id, or null if none was sent
+     * @throws ResponseStatusException 400 if the id is malformed
+     */
+    static String validate(String viewerId) {
+        if (viewerId == null) {
+            return null;
+        }
+        if (!VALID.matcher(viewerId).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + HEADER);
+        }
+        return viewerId;
+    }
+}
@@ -0,0 +1,22 @@
+package ee.markh.vaiki_backend.dto;
+
+import ee.markh.vaiki_backend.service.CatalogSnapshotService.CatalogSnapshot;
+
+import java.time.Instant;
+
+/**
+ * Summary of the in-memory catalog snapshot, returned by admin endpoints.
+ */
+public record CatalogStatusDto(
+        int movieCount,
+        int categoryCount,
+        Instant loadedAt
+) {
+    public static CatalogStatusDto from(CatalogSnapshot snapshot) {
+        return new CatalogStatusDto(
+                snapshot.movies().size(),
+                snapshot.categories().size(),
+                snapshot.loadedAt()
+        );
+    }
+}
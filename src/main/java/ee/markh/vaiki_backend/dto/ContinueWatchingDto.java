@@ -0,0 +1,12 @@
+package ee.markh.vaiki_backend.dto;
+
+import java.time.Instant;
+
+/**
+ * A partially watched movie in the viewer's "Continue watching" row.
+ */
+public record ContinueWatchingDto(
+        MovieCardDto movie,
+        int positionSeconds,
+        Instant updatedAt
+) {}
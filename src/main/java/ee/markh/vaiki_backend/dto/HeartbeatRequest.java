@@ -0,0 +1,15 @@
+package ee.markh.vaiki_backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Periodic playback progress report from the player.
+ */
+public record HeartbeatRequest(
+        @NotBlank @Size(max = 255) String movieSlug,
+        @NotBlank @Size(max = 64) String sessionId,
+        @NotNull @PositiveOrZero Integer positionSeconds
+) {}
@@ -0,0 +1,11 @@
+package ee.markh.vaiki_backend.dto;
+
+import java.util.List;
+
+/**
+ * One row of the home page: a category and its first movies.
+ */
+public record HomeRowDto(
+        CategoryDto category,
+        List<MovieCardDto> movies
+) {}
@@ -0,0 +1,14 @@
+package ee.markh.vaiki_backend.dto;
+
+/**
+ * A responsive image: the largest variant as {@code url}, every variant as a ready-made {@code srcset}
+ * ("…/poster-185.jpg 185w, …/poster-342.jpg 342w"), the original's dimensions for reserving space,
+ * and a BlurHash to paint until the image arrives.
+ */
+public record ImageDto(
+        String url,
+        String srcset,
+        int width,
+        int height,
+        String blurhash
+) {}
@@ -0,0 +1,21 @@
+package ee.markh.vaiki_backend.dto;
+
+/**
+ * Outcome of a catalog import.
+ *
+ * @param read               records read from the input
+ * @param written            movies inserted or updated
+ * @param skipped            existing movies left untouched (skip-existing mode)
+ * @param rejected           records skipped as invalid: null lines, a blank or missing slug or title, or a
+ *                           description longer than 2000 characters
+ * @param elapsedMillis      wall-clock duration of the import
+ * @param recordsPerSecond   read / elapsed
+ */
+public record ImportResultDto(
+        long read,
+        long written,
+        long skipped,
+        long rejected,
+        long elapsedMillis,
+        double recordsPerSecond
+) {}
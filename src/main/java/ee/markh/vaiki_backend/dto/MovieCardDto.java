@@ -0,0 +1,39 @@
+package ee.markh.vaiki_backend.dto;
+
+import ee.markh.vaiki_backend.repository.MovieCardView;
+
+import java.util.List;
+
+/**
+ * Lightweight movie representation for rows and grids.
+ */
+public record MovieCardDto(
+        String slug,
+        String title,
+        Integer year,
+        String posterUrl,
+        ImageDto poster,
+        List<String> categories
+) {
+    public static MovieCardDto from(MovieCardView movie, ImageDto poster, List<String> categories) {
+        return new MovieCardDto(
+                movie.getSlug(),
+                movie.getTitle(),
+                movie.getYear(),
+                movie.getPosterUrl(),
+                poster,
+                categories
+        );
+    }
+
+    public static MovieCardDto from(MovieDto movie) {
+        return new MovieCardDto(
+                movie.slug(),
+                movie.title(),
+                movie.year(),
+                movie.posterUrl(),
+                movie.poster(),
+                movie.categories()
+        );
+    }
+}
@@ -6,6 +6,8 @@ import java.util.List;
 
 /**
  * Movie DTO for API responses. Matches frontend Movie interface.
+ * {@code poster} and {@code backdrop} are null until the image pipeline has processed the movie's images;
+ * {@code posterUrl} and {@code backdropUrl} always point at the originals.
  */
 public record MovieDto(
         String slug,
@@ -19,9 +21,15 @@ public record MovieDto(
         String director,
         String country,
         boolean featured,
-        String featureText
+        String featureText,
+        ImageDto poster,
+        ImageDto backdrop
 ) {
     public static MovieDto from(Movie movie) {
+        return from(movie, null, null);
+    }
+
+    public static MovieDto from(Movie movie, ImageDto poster, ImageDto backdrop) {
         return new MovieDto(
                 movie.getSlug(),
                 movie.getTitle(),
@@ -30,11 +38,13 @@ public record MovieDto(
                 movie.getDurationMinutes(),
                 movie.getPosterUrl(),
                 movie.getBackdropUrl(),
-                movie.getCategories(),
+                movie.getCategories() == null ? List.of() : List.copyOf(movie.getCategories()),
                 movie.getDirector(),
                 movie.getCountry(),
                 movie.isFeatured(),
-                movie.getFeatureText()
+                movie.getFeatureText(),
+                poster,
+                backdrop
         );
     }
 }
@@ -0,0 +1,43 @@
+package ee.markh.vaiki_backend.dto;
+
+import ee.markh.vaiki_backend.entity.Movie;
+
+import java.util.List;
+
+/**
+ * One movie in a catalog import file (one JSON object per line). Field names match {@link MovieDto},
+ * plus {@code hlsPath}; {@code slug} and {@code title} are required.
+ */
+public record MovieImportRecord(
+        String slug,
+        String title,
+        Integer year,
+        String description,
+        Integer durationMinutes,
+        String posterUrl,
+        String backdropUrl,
+        List<String> categories,
+        String director,
+        String country,
+        String hlsPath,
+        Boolean featured,
+        String featureText
+) {
+    public static MovieImportRecord from(Movie movie) {
+        return new MovieImportRecord(
+                movie.getSlug(),
+                movie.getTitle(),
+                movie.getYear(),
+                movie.getDescription(),
+                movie.getDurationMinutes(),
+                movie.getPosterUrl(),
+                movie.getBackdropUrl(),
+                movie.getCategories(),
+                movie.getDirector(),
+                movie.getCountry(),
+                movie.getHlsPath(),
+                movie.isFeatured(),
+                movie.getFeatureText()
+        );
+    }
+}
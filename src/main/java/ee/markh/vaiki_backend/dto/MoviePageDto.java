@@ -0,0 +1,12 @@
+package ee.markh.vaiki_backend.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. Pass {@code nextCursor} back as {@code cursor}
+ * to get the following page; it is null on the last page.
+ */
+public record MoviePageDto<T>(
+        List<T> items,
+        String nextCursor
+) {}
@@ -0,0 +1,15 @@
+package ee.markh.vaiki_backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request body for signing playback URLs for several movies at once.
+ */
+public record PlaybackUrlBatchRequest(
+        @NotEmpty @Size(max = 100) List<@NotBlank String> slugs,
+        Integer ttl
+) {}
@@ -0,0 +1,13 @@
+package ee.markh.vaiki_backend.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Signed playback URLs keyed by movie slug. Slugs that are unknown or have no HLS content
+ * are listed in {@code missing} instead of failing the whole batch.
+ */
+public record PlaybackUrlBatchResponse(
+        Map<String, PlaybackUrlResponse> urls,
+        List<String> missing
+) {}
@@ -4,9 +4,14 @@ import java.time.Instant;
 
 /**
  * Response containing a signed playback URL and its expiration.
+ * {@code resumePositionSeconds} is where the viewer left off, if known (null otherwise).
  */
 public record PlaybackUrlResponse(
         String url,
-        Instant expiresAt
-) {}
-
+        Instant expiresAt,
+        Integer resumePositionSeconds
+) {
+    public PlaybackUrlResponse(String url, Instant expiresAt) {
+        this(url, expiresAt, null);
+    }
+}
@@ -2,6 +2,8 @@ package ee.markh.vaiki_backend.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+
 import java.util.List;
 
 @Entity
@@ -34,8 +36,18 @@ public class Movie {
 
     private String backdropUrl;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "movie_categories", joinColumns = @JoinColumn(name = "movie_id"))
+    /**
+     * Lazy on purpose: repository methods that need categories fetch them with an entity graph
+     * (one joined query), and anything else initializes them in batches instead of one select per movie.
+     * Kept in list order by category_index, so every endpoint lists a movie's categories the same way.
+     */
+    @ElementCollection
+    @BatchSize(size = 100)
+    @CollectionTable(
+            name = "movie_categories",
+            joinColumns = @JoinColumn(name = "movie_id"),
+            indexes = @Index(name = "idx_movie_categories_category_movie", columnList = "category, movie_id"))
+    @OrderColumn(name = "category_index")
     @Column(name = "category")
     private List<String> categories;
 
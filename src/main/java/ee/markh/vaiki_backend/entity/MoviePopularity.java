@@ -0,0 +1,36 @@
+package ee.markh.vaiki_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Persisted decayed popularity scores of a movie, as of {@code updatedAt}. Written in bulk by
+ * {@code PopularityService} (plain JDBC upserts); the entity exists so the schema is managed with the others.
+ */
+@Entity
+@Table(name = "movie_popularity")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MoviePopularity {
+
+    @Id
+    @Column(name = "movie_slug")
+    private String movieSlug;
+
+    @Column(name = "score_1h", nullable = false)
+    private double score1h;
+
+    @Column(name = "score_24h", nullable = false)
+    private double score24h;
+
+    @Column(name = "score_7d", nullable = false)
+    private double score7d;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
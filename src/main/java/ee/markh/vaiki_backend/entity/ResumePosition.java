@@ -0,0 +1,46 @@
+package ee.markh.vaiki_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Last known playback position of a viewer in a movie. Written in bulk by {@code ResumePositionStore}
+ * (plain JDBC upserts); the entity exists so the schema is managed with the others.
+ */
+@Entity
+@Table(name = "resume_positions", indexes = {
+        @Index(name = "idx_resume_positions_viewer_updated", columnList = "viewer_id, updated_at")
+})
+@IdClass(ResumePosition.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResumePosition {
+
+    @Id
+    @Column(name = "viewer_id", length = 64)
+    private String viewerId;
+
+    @Id
+    @Column(name = "movie_slug")
+    private String movieSlug;
+
+    @Column(name = "position_seconds", nullable = false)
+    private int positionSeconds;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String viewerId;
+        private String movieSlug;
+    }
+}
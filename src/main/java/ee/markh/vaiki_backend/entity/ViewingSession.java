@@ -0,0 +1,41 @@
+package ee.markh.vaiki_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * One playback session as reported by the player's heartbeats. Rows are written in bulk by
+ * {@code HeartbeatBuffer} (plain JDBC upserts); the entity exists so the schema is managed with the others.
+ */
+@Entity
+@Table(name = "viewing_sessions", indexes = {
+        @Index(name = "idx_viewing_sessions_movie_last_heartbeat", columnList = "movie_slug, last_heartbeat_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ViewingSession {
+
+    @Id
+    @Column(name = "session_id", length = 64)
+    private String sessionId;
+
+    @Column(name = "movie_slug", nullable = false)
+    private String movieSlug;
+
+    @Column(name = "position_seconds", nullable = false)
+    private int positionSeconds;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "last_heartbeat_at", nullable = false)
+    private Instant lastHeartbeatAt;
+
+    @Column(name = "heartbeat_count", nullable = false)
+    private long heartbeatCount;
+}
@@ -0,0 +1,33 @@
+package ee.markh.vaiki_backend.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+/**
+ * A {@link ResponseStatusException} that tells the client when to try again via the Retry-After header,
+ * e.g. 503 when the service is saturated or 429 when a client is rate limited.
+ */
+public class RetryLaterException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public RetryLaterException(HttpStatusCode status, String reason, Duration retryAfter) {
+        super(status, reason);
+        // Retry-After is whole seconds; never tell a client to retry immediately.
+        this.retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return headers;
+    }
+}
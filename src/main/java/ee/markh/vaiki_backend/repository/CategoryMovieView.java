@@ -0,0 +1,9 @@
+package ee.markh.vaiki_backend.repository;
+
+/**
+ * Movie card columns together with the category row they were selected for.
+ */
+public interface CategoryMovieView extends MovieCardView {
+
+    String getCategory();
+}
@@ -0,0 +1,18 @@
+package ee.markh.vaiki_backend.repository;
+
+/**
+ * Closed projection of the columns needed to render a movie card (no description, no HLS path).
+ * Categories live in a separate table and are loaded in bulk via {@link MovieRepository#findCategoriesByMovieIds}.
+ */
+public interface MovieCardView {
+
+    Long getId();
+
+    String getSlug();
+
+    String getTitle();
+
+    Integer getYear();
+
+    String getPosterUrl();
+}
@@ -0,0 +1,11 @@
+package ee.markh.vaiki_backend.repository;
+
+/**
+ * One row of the movie_categories collection table.
+ */
+public interface MovieCategoryView {
+
+    Long getMovieId();
+
+    String getCategory();
+}
@@ -1,16 +1,87 @@
 package ee.markh.vaiki_backend.repository;
 
 import ee.markh.vaiki_backend.entity.Movie;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface MovieRepository extends JpaRepository<Movie, Long> {
 
+    /**
+     * All movies with their categories fetched in the same query.
+     */
+    @Override
+    @EntityGraph(attributePaths = "categories")
+    List<Movie> findAll(Sort sort);
+
+    @EntityGraph(attributePaths = "categories")
     Optional<Movie> findBySlug(String slug);
+
+    @EntityGraph(attributePaths = "categories")
     Optional<Movie> findFirstByFeaturedTrue();
 
+    /**
+     * Keyset page of movies ordered by id, projected to {@code type} (e.g. {@link MovieCardView}).
+     */
+    <T> List<T> findByIdGreaterThanOrderByIdAsc(long afterId, Limit limit, Class<T> type);
+
+    /**
+     * Categories of the given movies, each movie's in list order (the same order the entity graph loads).
+     */
+    @Query("""
+            select m.id as movieId, c as category from Movie m join m.categories c
+            where m.id in :movieIds
+            order by m.id, index(c)
+            """)
+    List<MovieCategoryView> findCategoriesByMovieIds(@Param("movieIds") Collection<Long> movieIds);
+
+    /**
+     * Keyset page of the movies in one category, ordered by id.
+     * Served by the (category, movie_id) index on movie_categories.
+     */
+    @Query(value = """
+            select m.id as "id", m.slug as "slug", m.title as "title", m.year as "year", m.poster_url as "posterUrl"
+            from movie_categories mc
+            join movies m on m.id = mc.movie_id
+            where mc.category = :category and mc.movie_id > :afterId
+            order by mc.movie_id
+            limit :limit
+            """, nativeQuery = true)
+    List<MovieCardView> findCardsByCategory(
+            @Param("category") String category,
+            @Param("afterId") long afterId,
+            @Param("limit") int limit);
+
+    /**
+     * The first {@code perCategory} movies (by id) of each given category, in a single query. The lateral
+     * subquery walks the (category, movie_id) index once per category and stops after {@code perCategory} rows,
+     * so the cost does not grow with the size of the categories.
+     */
+    @Query(value = """
+            select c.slug as "category", top.id as "id", top.slug as "slug",
+                   top.title as "title", top.year as "year", top.poster_url as "posterUrl"
+            from categories c
+            cross join lateral (
+                select m.id, m.slug, m.title, m.year, m.poster_url
+                from movie_categories mc
+                join movies m on m.id = mc.movie_id
+                where mc.category = c.slug
+                order by mc.movie_id
+                limit :perCategory
+            ) top
+            where c.slug in (:categories)
+            order by c.slug, top.id
+            """, nativeQuery = true)
+    List<CategoryMovieView> findTopCardsPerCategory(
+            @Param("categories") Collection<String> categories,
+            @Param("perCategory") int perCategory);
 
     boolean existsBySlug(String slug);
 }
-
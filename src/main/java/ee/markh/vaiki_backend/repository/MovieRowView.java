@@ -0,0 +1,22 @@
+package ee.markh.vaiki_backend.repository;
+
+/**
+ * Closed projection of every scalar movie column exposed by the API, used when a listing
+ * asks for fields beyond the card set. Still avoids hydrating {@code Movie} entities.
+ */
+public interface MovieRowView extends MovieCardView {
+
+    String getDescription();
+
+    Integer getDurationMinutes();
+
+    String getBackdropUrl();
+
+    String getDirector();
+
+    String getCountry();
+
+    boolean isFeatured();
+
+    String getFeatureText();
+}
@@ -0,0 +1,189 @@
+package ee.markh.vaiki_backend.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Keeps the catalog snapshot in sync across instances using Postgres LISTEN/NOTIFY.
+ * <p>
+ * A statement-level trigger on movies, movie_categories and categories (Flyway migration V3)
+ * sends the next catalog_version on the 'catalog_changed' channel whenever the catalog is written, by this app or
+ * anyone else. Each instance listens on its own connection, outside the pool, and rebuilds its snapshot as soon as
+ * notifications stop arriving for app.catalog.listen-debounce, so a bulk edit causes one rebuild rather than hundreds.
+ * <p>
+ * Every successful LISTEN, the first one included, is followed by one refresh: notifications sent before it
+ * (between the startup load and the first LISTEN, or while reconnecting) are never delivered.
+ * The scheduled refresh remains as a safety net.
+ */
+@Service
+public class CatalogChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogChangeListener.class);
+
+    static final String CHANNEL = "catalog_changed";
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final Duration debounce;
+
+    private volatile boolean running;
+    private volatile long lastVersion;
+    private Thread thread;
+    private volatile Connection connection;
+
+    public CatalogChangeListener(
+            CatalogSnapshotService catalogSnapshotService,
+            DataSource dataSource,
+            @Value("${app.catalog.listen-enabled:true}") boolean enabled,
+            @Value("${app.catalog.listen-debounce:PT0.2S}") Duration debounce) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.debounce = debounce;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofPlatform().name("catalog-listener").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * The catalog_version carried by the most recent notification (0 if none was received yet).
+     */
+    public long lastVersion() {
+        return lastVersion;
+    }
+
+    private void run() {
+        Duration backoff = Duration.ofSeconds(1);
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection listening = openConnection()) {
+                connection = listening;
+                try (Statement statement = listening.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening for catalog changes on '{}'", CHANNEL);
+                refresh(reconnecting ? "reconnected" : "started listening");
+                backoff = Duration.ofSeconds(1);
+                listen(listening.unwrap(PGConnection.class));
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Catalog change listener disconnected, retrying in {} s", backoff.toSeconds(), e);
+                reconnecting = true;
+                if (!sleep(backoff)) {
+                    return;
+                }
+                backoff = backoff.multipliedBy(2).compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff.multipliedBy(2);
+            }
+        }
+    }
+
+    private void listen(PGConnection listening) throws SQLException {
+        while (running) {
+            PGNotification[] notifications = listening.getNotifications((int) POLL_TIMEOUT.toMillis());
+            if (notifications == null || notifications.length == 0) {
+                continue;
+            }
+            record(notifications);
+            // Debounce: keep draining until the channel has been quiet for the debounce period.
+            PGNotification[] more;
+            while ((more = listening.getNotifications((int) Math.max(1, debounce.toMillis()))) != null && more.length > 0) {
+                record(more);
+            }
+            refresh("version " + lastVersion);
+        }
+    }
+
+    private void record(PGNotification[] notifications) {
+        for (PGNotification notification : notifications) {
+            try {
+                lastVersion = Math.max(lastVersion, Long.parseLong(notification.getParameter()));
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring catalog notification with payload '{}'", notification.getParameter());
+            }
+        }
+    }
+
+    private void refresh(String reason) {
+        try {
+            catalogSnapshotService.refresh();
+            log.info("Catalog snapshot refreshed after change notification ({})", reason);
+        } catch (RuntimeException e) {
+            log.warn("Catalog refresh after change notification failed, keeping previous snapshot", e);
+        }
+    }
+
+    /**
+     * A dedicated connection: LISTEN is per session, and a pooled connection would be recycled under us.
+     * Uses the pool's driver properties too (SSL, timeouts, ApplicationName), not just its URL and credentials.
+     */
+    private Connection openConnection() throws SQLException {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        Properties properties = new Properties();
+        properties.putAll(hikari.getDataSourceProperties());
+        if (hikari.getUsername() != null) {
+            properties.setProperty("user", hikari.getUsername());
+        }
+        if (hikari.getPassword() != null) {
+            properties.setProperty("password", hikari.getPassword());
+        }
+        return DriverManager.getConnection(hikari.getJdbcUrl(), properties);
+    }
+
+    private static boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Error closing catalog listener connection", e);
+        }
+    }
+}
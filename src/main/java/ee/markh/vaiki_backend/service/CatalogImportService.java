@@ -0,0 +1,222 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.dto.ImportResultDto;
+import ee.markh.vaiki_backend.dto.MovieImportRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.InputStream;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams movies from a JSON Lines file into the database in large JDBC batches.
+ * <p>
+ * Records are read one at a time and written per batch (app.import.batch-size), each batch in its own transaction:
+ * one multi-row {@code INSERT ... ON CONFLICT (slug)} for the movies, one query for their ids, and a bulk
+ * delete + insert of their movie_categories rows. Memory use is bounded by the batch size, not the file size,
+ * and the statement count per batch is constant. Identity ids are assigned by Postgres, which is why this goes
+ * through JDBC rather than JPA (Hibernate cannot batch inserts of IDENTITY entities).
+ */
+@Service
+public class CatalogImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportService.class);
+
+    /** Same as the movies.description column length. */
+    private static final int MAX_DESCRIPTION_LENGTH = 2000;
+
+    private static final String UPSERT_MOVIE_SQL = """
+            INSERT INTO movies (slug, title, year, description, duration_minutes, poster_url, backdrop_url,
+                                director, country, hls_path, featured, feature_text)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (slug) DO UPDATE SET
+                title = EXCLUDED.title,
+                year = EXCLUDED.year,
+                description = EXCLUDED.description,
+                duration_minutes = EXCLUDED.duration_minutes,
+                poster_url = EXCLUDED.poster_url,
+                backdrop_url = EXCLUDED.backdrop_url,
+                director = EXCLUDED.director,
+                country = EXCLUDED.country,
+                hls_path = EXCLUDED.hls_path,
+                featured = EXCLUDED.featured,
+                feature_text = EXCLUDED.feature_text
+            """;
+
+    /**
+     * What to do with records whose slug already exists.
+     */
+    public enum Mode {
+        /** Overwrite the existing movie and its categories. */
+        UPSERT,
+        /** Leave the existing movie untouched. */
+        SKIP_EXISTING;
+
+        /**
+         * Parses "upsert" or "skip-existing" (case-insensitive).
+         */
+        public static Mode parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonMapper jsonMapper;
+    private final int batchSize;
+
+    public CatalogImportService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            JsonMapper jsonMapper,
+            @Value("${app.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.jsonMapper = jsonMapper;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Imports a JSON Lines stream (one {@link MovieImportRecord} per line) and closes it.
+     * A malformed line aborts the import; batches written before it stay committed.
+     */
+    public ImportResultDto importJsonl(InputStream input, Mode mode) {
+        try (MappingIterator<MovieImportRecord> records = jsonMapper.readerFor(MovieImportRecord.class).readValues(input)) {
+            return importRecords(records, mode);
+        }
+    }
+
+    /**
+     * Imports records from any source, e.g. the development seed data.
+     */
+    public ImportResultDto importRecords(Iterator<MovieImportRecord> records, Mode mode) {
+        long started = System.nanoTime();
+        long read = 0;
+        long written = 0;
+        long rejected = 0;
+        long skipped = 0;
+
+        // Keyed by slug: a multi-row upsert must not touch the same row twice, so the last record for a slug wins.
+        Map<String, MovieImportRecord> batch = new LinkedHashMap<>();
+        while (records.hasNext()) {
+            MovieImportRecord record = records.next();
+            read++;
+            if (!isValid(record)) {
+                rejected++;
+                continue;
+            }
+            batch.put(record.slug(), record);
+            if (batch.size() >= batchSize) {
+                int batchWritten = writeBatch(batch.values(), mode);
+                written += batchWritten;
+                skipped += batch.size() - batchWritten;
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            int batchWritten = writeBatch(batch.values(), mode);
+            written += batchWritten;
+            skipped += batch.size() - batchWritten;
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        ImportResultDto result = new ImportResultDto(read, written, skipped, rejected, elapsedMillis,
+                read * 1000.0 / elapsedMillis);
+        log.info("Catalog import ({}): read {}, written {}, skipped {}, rejected {} in {} ms ({} records/s)",
+                mode, read, written, skipped, rejected, elapsedMillis, Math.round(result.recordsPerSecond()));
+        return result;
+    }
+
+    private static boolean isValid(MovieImportRecord record) {
+        return record != null
+                && record.slug() != null && !record.slug().isBlank()
+                && record.title() != null && !record.title().isBlank()
+                && (record.description() == null || record.description().length() <= MAX_DESCRIPTION_LENGTH);
+    }
+
+    /**
+     * @return number of movies inserted or updated
+     */
+    private int writeBatch(Collection<MovieImportRecord> batch, Mode mode) {
+        Integer count = transactionTemplate.execute(_ -> {
+            List<MovieImportRecord> toWrite = new ArrayList<>(batch);
+            if (mode == Mode.SKIP_EXISTING) {
+                Set<String> existing = new HashSet<>(findIdsBySlug(slugsOf(toWrite)).keySet());
+                toWrite.removeIf(record -> existing.contains(record.slug()));
+            }
+            if (toWrite.isEmpty()) {
+                return 0;
+            }
+
+            jdbcTemplate.batchUpdate(UPSERT_MOVIE_SQL, toWrite, toWrite.size(), (ps, record) -> {
+                ps.setString(1, record.slug());
+                ps.setString(2, record.title());
+                ps.setObject(3, record.year(), Types.INTEGER);
+                ps.setString(4, record.description());
+                ps.setObject(5, record.durationMinutes(), Types.INTEGER);
+                ps.setString(6, record.posterUrl());
+                ps.setString(7, record.backdropUrl());
+                ps.setString(8, record.director());
+                ps.setString(9, record.country());
+                ps.setString(10, record.hlsPath());
+                ps.setBoolean(11, Boolean.TRUE.equals(record.featured()));
+                ps.setString(12, record.featureText());
+            });
+
+            Map<String, Long> ids = findIdsBySlug(slugsOf(toWrite));
+            Long[] movieIds = toWrite.stream().map(record -> ids.get(record.slug())).toArray(Long[]::new);
+            jdbcTemplate.update("DELETE FROM movie_categories WHERE movie_id = ANY(?)",
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", movieIds)));
+
+            List<Object[]> categoryRows = new ArrayList<>();
+            for (MovieImportRecord record : toWrite) {
+                if (record.categories() == null) {
+                    continue;
+                }
+                int index = 0;
+                for (String category : new LinkedHashSet<>(record.categories())) {
+                    if (category != null && !category.isBlank()) {
+                        categoryRows.add(new Object[] {ids.get(record.slug()), category, index++});
+                    }
+                }
+            }
+            if (!categoryRows.isEmpty()) {
+                jdbcTemplate.batchUpdate("INSERT INTO movie_categories (movie_id, category, category_index) VALUES (?, ?, ?)",
+                        categoryRows);
+            }
+            return toWrite.size();
+        });
+        return count != null ? count : 0;
+    }
+
+    private Map<String, Long> findIdsBySlug(String[] slugs) {
+        Map<String, Long> ids = new HashMap<>(slugs.length * 2);
+        jdbcTemplate.query("SELECT id, slug FROM movies WHERE slug = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("text", slugs)),
+                rs -> {
+                    ids.put(rs.getString("slug"), rs.getLong("id"));
+                });
+        return ids;
+    }
+
+    private static String[] slugsOf(List<MovieImportRecord> records) {
+        return records.stream().map(MovieImportRecord::slug).toArray(String[]::new);
+    }
+}
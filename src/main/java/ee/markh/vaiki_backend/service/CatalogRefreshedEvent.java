@@ -0,0 +1,10 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.service.CatalogSnapshotService.CatalogSnapshot;
+
+/**
+ * Published after a new catalog snapshot has been swapped in, so derived in-memory structures can rebuild.
+ *
+ * @param snapshot the snapshot now being served
+ */
+public record CatalogRefreshedEvent(CatalogSnapshot snapshot) {}
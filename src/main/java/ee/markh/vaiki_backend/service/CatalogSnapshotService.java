@@ -0,0 +1,191 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.dto.CategoryDto;
+import ee.markh.vaiki_backend.dto.ImageDto;
+import ee.markh.vaiki_backend.dto.MovieDto;
+import ee.markh.vaiki_backend.entity.Movie;
+import ee.markh.vaiki_backend.repository.CategoryRepository;
+import ee.markh.vaiki_backend.repository.MovieRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds an immutable, pre-built snapshot of the catalog so read endpoints never touch the database.
+ * The snapshot is rebuilt on a fixed interval (app.catalog.refresh-interval) or on demand via {@link #refresh()},
+ * and swapped atomically so readers always see a consistent view.
+ * <p>
+ * Each snapshot also carries its JSON bodies pre-serialized and pre-compressed ({@link EncodedJson}),
+ * so the catalog endpoints can write bytes without running Jackson or a compressor per request.
+ * Responsive image variants ({@link MovieImageStore}) are joined in while building it.
+ * A {@link CatalogRefreshedEvent} is published after every swap.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private final MovieRepository movieRepository;
+    private final CategoryRepository categoryRepository;
+    private final MovieImageStore movieImageStore;
+    private final JsonMapper jsonMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+
+    public CatalogSnapshotService(
+            MovieRepository movieRepository,
+            CategoryRepository categoryRepository,
+            MovieImageStore movieImageStore,
+            JsonMapper jsonMapper,
+            ApplicationEventPublisher eventPublisher) {
+        this.movieRepository = movieRepository;
+        this.categoryRepository = categoryRepository;
+        this.movieImageStore = movieImageStore;
+        this.jsonMapper = jsonMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Returns the current snapshot, loading it on first use if the startup load has not happened yet.
+     */
+    public CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot.get();
+        return current != null ? current : refresh();
+    }
+
+    /**
+     * Rebuilds the snapshot from the database and swaps it in. Concurrent callers are serialized
+     * so a burst of reload triggers results in back-to-back loads rather than parallel ones.
+     */
+    public synchronized CatalogSnapshot refresh() {
+        long started = System.nanoTime();
+
+        List<Movie> movies = movieRepository.findAll(Sort.by("id"));
+        List<CategoryDto> categories = categoryRepository.findByVisibleTrueOrderByOrderIndex()
+                .stream()
+                .map(CategoryDto::from)
+                .toList();
+        Map<String, Map<String, ImageDto>> images = movieImageStore.loadAll();
+
+        Map<String, MovieDto> moviesBySlug = new LinkedHashMap<>();
+        Map<String, String> hlsPathsBySlug = new LinkedHashMap<>();
+        MovieDto featured = null;
+        for (Movie movie : movies) {
+            Map<String, ImageDto> movieImages = images.getOrDefault(movie.getSlug(), Map.of());
+            MovieDto dto = MovieDto.from(movie,
+                    movieImages.get(MovieImageStore.POSTER), movieImages.get(MovieImageStore.BACKDROP));
+            moviesBySlug.put(dto.slug(), dto);
+            if (movie.getHlsPath() != null && !movie.getHlsPath().isBlank()) {
+                hlsPathsBySlug.put(dto.slug(), movie.getHlsPath());
+            }
+            if (featured == null && dto.featured()) {
+                featured = dto;
+            }
+        }
+
+        List<MovieDto> movieList = List.copyOf(moviesBySlug.values());
+        CatalogSnapshot next = new CatalogSnapshot(
+                movieList,
+                categories,
+                Map.copyOf(moviesBySlug),
+                Map.copyOf(hlsPathsBySlug),
+                featured,
+                Instant.now(),
+                encode(movieList),
+                encode(categories),
+                featured != null ? encode(featured) : null,
+                new ConcurrentHashMap<>()
+        );
+        snapshot.set(next);
+
+        log.info("Catalog snapshot loaded: {} movies, {} categories in {} ms",
+                next.movies().size(), next.categories().size(), (System.nanoTime() - started) / 1_000_000);
+        eventPublisher.publishEvent(new CatalogRefreshedEvent(next));
+        return next;
+    }
+
+    /**
+     * Pre-encoded JSON body for a single movie. Per-movie bodies are encoded lazily on first request
+     * and then reused until the next snapshot, which keeps large catalogs from tripling their footprint up front.
+     */
+    public Optional<EncodedJson> movieJson(String slug) {
+        CatalogSnapshot catalog = current();
+        return catalog.findMovie(slug)
+                .map(movie -> catalog.movieJsonBySlug().computeIfAbsent(slug, _ -> encode(movie)));
+    }
+
+    private EncodedJson encode(Object body) {
+        return EncodedJson.encode(jsonMapper.writeValueAsBytes(body));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reloadQuietly();
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.catalog.refresh-interval:PT5M}",
+            fixedDelayString = "${app.catalog.refresh-interval:PT5M}")
+    public void scheduledRefresh() {
+        reloadQuietly();
+    }
+
+    private void reloadQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Keep serving the previous snapshot; the next refresh will try again.
+            log.warn("Catalog snapshot refresh failed, keeping previous snapshot", e);
+        }
+    }
+
+    /**
+     * Immutable view of the catalog at a point in time.
+     *
+     * @param movies         all movies, ordered by id
+     * @param categories     visible categories, ordered by orderIndex
+     * @param moviesBySlug   lookup of movies by slug
+     * @param hlsPathsBySlug HLS master playlist paths for movies that have playable content
+     * @param featured       the featured movie, or null if none is flagged
+     * @param loadedAt       when the snapshot was built
+     * @param moviesJson     encoded body of {@code movies}
+     * @param categoriesJson encoded body of {@code categories}
+     * @param featuredJson   encoded body of {@code featured}, or null if none is flagged
+     * @param movieJsonBySlug lazily filled per-movie encoded bodies
+     */
+    public record CatalogSnapshot(
+            List<MovieDto> movies,
+            List<CategoryDto> categories,
+            Map<String, MovieDto> moviesBySlug,
+            Map<String, String> hlsPathsBySlug,
+            MovieDto featured,
+            Instant loadedAt,
+            EncodedJson moviesJson,
+            EncodedJson categoriesJson,
+            EncodedJson featuredJson,
+            ConcurrentMap<String, EncodedJson> movieJsonBySlug
+    ) {
+        public Optional<MovieDto> findMovie(String slug) {
+            return Optional.ofNullable(moviesBySlug.get(slug));
+        }
+
+        public Optional<MovieDto> findFeatured() {
+            return Optional.ofNullable(featured);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ee.markh.vaiki_backend.service;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A JSON response body encoded once and kept in its identity, gzip and brotli forms,
+ * together with a strong ETag derived from the identity bytes.
+ * Compressed forms are null when the body is too small to benefit or the encoder is unavailable.
+ *
+ * @param identity the uncompressed UTF-8 JSON
+ * @param gzip     gzip-compressed JSON, or null
+ * @param brotli   brotli-compressed JSON, or null
+ * @param etag     quoted strong entity tag of the identity representation
+ */
+public record EncodedJson(byte[] identity, byte[] gzip, byte[] brotli, String etag) {
+
+    /** Bodies below this size are sent uncompressed; the framing overhead outweighs the savings. */
+    private static final int MIN_COMPRESSIBLE_BYTES = 256;
+
+    /** Quality 11 is too slow for multi-megabyte catalogs; 9 keeps most of the ratio at a fraction of the CPU. */
+    private static final int BROTLI_QUALITY = 9;
+
+    private static final boolean BROTLI_AVAILABLE = Brotli4jLoader.isAvailable();
+
+    public static EncodedJson encode(byte[] json) {
+        boolean compress = json.length >= MIN_COMPRESSIBLE_BYTES;
+        return new EncodedJson(
+                json,
+                compress ? gzip(json) : null,
+                compress && BROTLI_AVAILABLE ? brotli(json) : null,
+                '"' + digest(json) + '"'
+        );
+    }
+
+    /**
+     * ETag of a compressed variant. Strong validators must differ per content-coding,
+     * so each variant carries its own suffix.
+     */
+    public String etag(String contentCoding) {
+        return contentCoding == null ? etag : etag.substring(0, etag.length() - 1) + '-' + contentCoding + '"';
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to gzip JSON body", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] brotli(byte[] json) {
+        try {
+            return Encoder.compress(json, new Encoder.Parameters().setQuality(BROTLI_QUALITY));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to brotli-compress JSON body", e);
+        }
+    }
+
+    private static String digest(byte[] json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            // 128 bits is plenty to tell catalog versions apart and keeps the header short.
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
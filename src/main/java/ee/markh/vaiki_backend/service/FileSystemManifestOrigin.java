@@ -0,0 +1,35 @@
+package ee.markh.vaiki_backend.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Reads playlists from a local directory that mirrors the bucket layout.
+ */
+final class FileSystemManifestOrigin implements ManifestOrigin {
+
+    private final Path root;
+
+    FileSystemManifestOrigin(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public Optional<byte[]> fetch(String objectPath) throws IOException {
+        Path file = root.resolve(objectPath.replaceFirst("^/+", "")).normalize();
+        if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        if (Files.size(file) > MAX_MANIFEST_BYTES) {
+            throw new IOException("Manifest too large: " + objectPath);
+        }
+        try {
+            return Optional.of(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.dto.HeartbeatRequest;
+import ee.markh.vaiki_backend.exception.RetryLaterException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffers playback heartbeats in memory and writes them to viewing_sessions in JDBC batches.
+ * <p>
+ * Heartbeats for the same session collapse into one pending entry (latest position wins, counts add up),
+ * so a flush writes at most one row per active session no matter how often players report.
+ * Recording never touches the database; flushing runs every app.playback.heartbeat-flush-interval and on shutdown.
+ * A flush writes all of its batches in one transaction, so if it fails nothing has been counted yet and its
+ * entries are merged back and retried on the next run.
+ */
+@Service
+public class HeartbeatBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(HeartbeatBuffer.class);
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO viewing_sessions
+                (session_id, movie_slug, position_seconds, started_at, last_heartbeat_at, heartbeat_count)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (session_id) DO UPDATE SET
+                movie_slug = EXCLUDED.movie_slug,
+                position_seconds = EXCLUDED.position_seconds,
+                last_heartbeat_at = EXCLUDED.last_heartbeat_at,
+                heartbeat_count = viewing_sessions.heartbeat_count + EXCLUDED.heartbeat_count
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBufferedSessions;
+    private final int batchSize;
+    private final ConcurrentHashMap<String, PendingHeartbeat> pending = new ConcurrentHashMap<>();
+    private final Counter received;
+    private final Counter rejected;
+    private final Timer flushTimer;
+
+    public HeartbeatBuffer(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.playback.heartbeat-buffer-size:100000}") int maxBufferedSessions,
+            @Value("${app.playback.heartbeat-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBufferedSessions = maxBufferedSessions;
+        this.batchSize = batchSize;
+        this.received = meterRegistry.counter("vaiki.heartbeats.received");
+        this.rejected = meterRegistry.counter("vaiki.heartbeats.rejected");
+        this.flushTimer = meterRegistry.timer("vaiki.heartbeats.flush");
+        meterRegistry.gaugeMapSize("vaiki.heartbeats.buffered", List.of(), pending);
+    }
+
+    /**
+     * Buffers a heartbeat. Rejects it with 503 if the buffer is full and the session is not already pending
+     * (the database is falling behind, so the player should back off).
+     */
+    public void record(HeartbeatRequest heartbeat) {
+        if (pending.size() >= maxBufferedSessions && !pending.containsKey(heartbeat.sessionId())) {
+            rejected.increment();
+            throw new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE, "Heartbeat buffer is full", Duration.ofSeconds(10));
+        }
+        Instant now = Instant.now();
+        pending.merge(heartbeat.sessionId(),
+                new PendingHeartbeat(heartbeat.sessionId(), heartbeat.movieSlug(), heartbeat.positionSeconds(), now, now, 1),
+                PendingHeartbeat::merge);
+        received.increment();
+    }
+
+    /**
+     * Writes all pending sessions in batches of app.playback.heartbeat-batch-size.
+     *
+     * @return number of sessions written
+     */
+    @Scheduled(fixedDelayString = "${app.playback.heartbeat-flush-interval:PT2S}")
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<PendingHeartbeat> batch = new ArrayList<>(pending.size());
+        for (String sessionId : pending.keySet()) {
+            PendingHeartbeat heartbeat = pending.remove(sessionId);
+            if (heartbeat != null) {
+                batch.add(heartbeat);
+            }
+        }
+        // Same row order on every instance, so concurrent flushes lock shared sessions in the same order
+        batch.sort(Comparator.comparing(PendingHeartbeat::sessionId));
+
+        try {
+            flushTimer.record(() -> write(batch));
+            return batch.size();
+        } catch (DataAccessException e) {
+            log.warn("Failed to flush {} heartbeats, retrying on next run", batch.size(), e);
+            batch.forEach(heartbeat -> pending.merge(heartbeat.sessionId(), heartbeat, PendingHeartbeat::merge));
+            return 0;
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        int written = flush();
+        log.info("Flushed {} buffered heartbeats on shutdown", written);
+    }
+
+    public int bufferedSessions() {
+        return pending.size();
+    }
+
+    /**
+     * One transaction for all sub-batches: the upsert adds counts, so a sub-batch committed before a later one
+     * failed would be counted again when the merged-back entries are retried.
+     */
+    private void write(List<PendingHeartbeat> batch) {
+        transactionTemplate.executeWithoutResult(_ -> jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batchSize,
+                (ps, heartbeat) -> {
+                    ps.setString(1, heartbeat.sessionId());
+                    ps.setString(2, heartbeat.movieSlug());
+                    ps.setInt(3, heartbeat.positionSeconds());
+                    ps.setObject(4, OffsetDateTime.ofInstant(heartbeat.firstSeenAt(), ZoneOffset.UTC));
+                    ps.setObject(5, OffsetDateTime.ofInstant(heartbeat.lastSeenAt(), ZoneOffset.UTC));
+                    ps.setLong(6, heartbeat.count());
+                }));
+    }
+
+    /**
+     * Heartbeats of one session received since the last flush.
+     */
+    record PendingHeartbeat(String sessionId, String movieSlug, int positionSeconds,
+                            Instant firstSeenAt, Instant lastSeenAt, long count) {
+
+        /**
+         * Order-independent merge: the later heartbeat's slug and position win, counts add up.
+         */
+        static PendingHeartbeat merge(PendingHeartbeat a, PendingHeartbeat b) {
+            PendingHeartbeat latest = b.lastSeenAt().isBefore(a.lastSeenAt()) ? a : b;
+            Instant first = a.firstSeenAt().isBefore(b.firstSeenAt()) ? a.firstSeenAt() : b.firstSeenAt();
+            return new PendingHeartbeat(latest.sessionId(), latest.movieSlug(), latest.positionSeconds(),
+                    first, latest.lastSeenAt(), a.count() + b.count());
+        }
+    }
+}
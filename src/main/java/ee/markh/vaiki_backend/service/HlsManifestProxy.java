@@ -0,0 +1,171 @@
+package ee.markh.vaiki_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import ee.markh.vaiki_backend.service.CloudFrontSignerService.SignedCookiesResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Serves a movie's HLS playlists with signed URLs, so players need neither signed cookies nor an open path.
+ * <p>
+ * Playlists are fetched unsigned from the origin (app.hls-proxy.origin) and cached as raw bytes, bounded by
+ * app.hls-proxy.cache-max-bytes and refetched after app.hls-proxy.cache-ttl. Each response is rewritten while it
+ * is streamed: playlist URIs under the movie's directory point back at this proxy (so variant playlists are
+ * rewritten too), and segment, key and init URIs get CloudFront URLs carrying one custom-policy signature for the
+ * whole directory. That signature comes from {@link SignedUrlCache}, so a bucket's worth of viewers share it.
+ * <p>
+ * Players fetch a VOD variant playlist once, so its segment URLs must stay valid for the whole film: they are signed
+ * for the movie's running time plus app.hls-proxy.ttl-margin (pauses, seeking back), clamped by the cache to
+ * app.cloudfront.max-ttl-seconds. Movies without a duration get the default TTL.
+ */
+@Service
+@ConditionalOnProperty(name = "app.hls-proxy.enabled", havingValue = "true")
+public class HlsManifestProxy {
+
+    /** Path prefix of the proxy endpoint; playlists are served at PROXY_PATH + slug + path within the movie directory. */
+    public static final String PROXY_PATH = "/api/hls/";
+
+    private final ManifestOrigin origin;
+    private final SignedUrlCache signedUrlCache;
+    private final Duration ttlMargin;
+    private final Cache<String, byte[]> manifests;
+
+    public HlsManifestProxy(
+            SignedUrlCache signedUrlCache,
+            MeterRegistry meterRegistry,
+            @Value("${app.hls-proxy.origin:}") String origin,
+            @Value("${app.hls-proxy.cache-max-bytes:33554432}") long cacheMaxBytes,
+            @Value("${app.hls-proxy.cache-ttl:PT10M}") Duration cacheTtl,
+            @Value("${app.hls-proxy.ttl-margin:PT1H}") Duration ttlMargin) {
+        this.origin = ManifestOrigin.of(origin);
+        this.signedUrlCache = signedUrlCache;
+        this.ttlMargin = ttlMargin;
+        this.manifests = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxBytes)
+                .weigher((String _, byte[] manifest) -> manifest.length)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, manifests, "hlsManifests");
+    }
+
+    /**
+     * Streams a rewritten playlist to the client.
+     */
+    @FunctionalInterface
+    public interface ManifestBody {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Looks up a playlist of the movie whose master playlist is {@code hlsPath}.
+     *
+     * @param slug            Movie slug, used in the rewritten playlist URIs
+     * @param durationMinutes Running time of the movie, or null if unknown
+     * @param path            Playlist path relative to the master playlist's directory (e.g. "720p/index.m3u8")
+     * @return the rewritten playlist, or empty if the path is not a playlist in that directory or the origin lacks it
+     * @throws ResponseStatusException 502 if the origin cannot be reached
+     */
+    public Optional<ManifestBody> manifest(String slug, String hlsPath, Integer durationMinutes, String path) {
+        String directory = hlsPath.substring(0, hlsPath.lastIndexOf('/') + 1);
+        Optional<String> objectPath = resolve(directory, path);
+        if (objectPath.isEmpty()) {
+            return Optional.empty();
+        }
+        byte[] manifest = fetch(objectPath.get());
+        if (manifest == null) {
+            return Optional.empty();
+        }
+        Integer ttl = ttlSeconds(durationMinutes);
+        return Optional.of(out -> write(manifest, slug, directory, objectPath.get(), ttl, out));
+    }
+
+    /**
+     * Running time plus the margin, or null (the default TTL) if the duration is unknown.
+     */
+    Integer ttlSeconds(Integer durationMinutes) {
+        if (durationMinutes == null || durationMinutes <= 0) {
+            return null;
+        }
+        return Math.toIntExact(Math.min(Integer.MAX_VALUE,
+                Duration.ofMinutes(durationMinutes).plus(ttlMargin).toSeconds()));
+    }
+
+    /**
+     * Resolves {@code path} against the movie directory, refusing anything that is not a playlist inside it.
+     */
+    static Optional<String> resolve(String directory, String path) {
+        String relative = path.replaceFirst("^/+", "");
+        if (!relative.endsWith(".m3u8")) {
+            return Optional.empty();
+        }
+        try {
+            String resolved = URI.create(directory).resolve(relative).normalize().getPath();
+            return resolved.startsWith(directory) ? Optional.of(resolved) : Optional.empty();
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] fetch(String objectPath) {
+        try {
+            return manifests.get(objectPath, key -> {
+                try {
+                    return origin.fetch(key).orElse(null);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "HLS origin unavailable", e);
+        }
+    }
+
+    private void write(byte[] manifest, String slug, String directory, String objectPath, Integer ttl, OutputStream out)
+            throws IOException {
+        String signature = signatureQuery(signedUrlCache.getSignedCookies(directory + "*", ttl));
+        String distribution = "https://" + signedUrlCache.getDistributionDomain();
+        String proxyBase = PROXY_PATH + slug + "/";
+
+        HlsManifestRewriter rewriter = new HlsManifestRewriter(
+                playlist -> playlist.startsWith(directory)
+                        ? proxyBase + playlist.substring(directory.length())
+                        : signedUrlCache.getSignedUrl(playlist, ttl).url(),
+                media -> media.startsWith(directory)
+                        ? distribution + media + "?" + signature
+                        : signedUrlCache.getSignedUrl(media, ttl).url());
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(manifest), StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        rewriter.rewrite(in, writer, objectPath);
+    }
+
+    /**
+     * A custom-policy signed URL carries the same three values as the signed cookies, as query parameters.
+     */
+    private static String signatureQuery(SignedCookiesResult cookies) {
+        return "Policy=" + cookies.cookies().get("CloudFront-Policy")
+                + "&Signature=" + cookies.cookies().get("CloudFront-Signature")
+                + "&Key-Pair-Id=" + cookies.cookies().get("CloudFront-Key-Pair-Id");
+    }
+}
@@ -0,0 +1,85 @@
+package ee.markh.vaiki_backend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+
+/**
+ * Rewrites the URIs in an HLS playlist, one line at a time.
+ * <p>
+ * URI lines and {@code URI="..."} attributes (EXT-X-MEDIA, EXT-X-MAP, EXT-X-KEY, ...) are resolved against the
+ * playlist's own object path and passed to {@code playlists} (for .m3u8 targets) or {@code media} (everything else).
+ * Absolute URLs and all other lines are copied unchanged. Only the current line is ever held in memory.
+ */
+public final class HlsManifestRewriter {
+
+    private static final String URI_ATTRIBUTE = "URI=\"";
+
+    /**
+     * Maps an object path within the distribution (e.g. "/metropolis/720p/index.m3u8") to the URL the player gets.
+     */
+    @FunctionalInterface
+    public interface UriMapper {
+        String map(String objectPath);
+    }
+
+    private final UriMapper playlists;
+    private final UriMapper media;
+
+    public HlsManifestRewriter(UriMapper playlists, UriMapper media) {
+        this.playlists = playlists;
+        this.media = media;
+    }
+
+    /**
+     * Copies the playlist from {@code in} to {@code out}, rewriting its URIs.
+     *
+     * @param manifestPath Object path the playlist was fetched from; relative URIs are resolved against it
+     */
+    public void rewrite(BufferedReader in, Writer out, String manifestPath) throws IOException {
+        URI base = URI.create(manifestPath);
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.startsWith("#")) {
+                writeTag(line, out, base);
+            } else if (!line.isBlank()) {
+                out.write(map(line.strip(), base));
+            }
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    private void writeTag(String line, Writer out, URI base) throws IOException {
+        int copied = 0;
+        int attribute;
+        while ((attribute = line.indexOf(URI_ATTRIBUTE, copied)) >= 0) {
+            int valueStart = attribute + URI_ATTRIBUTE.length();
+            int valueEnd = line.indexOf('"', valueStart);
+            if (valueEnd < 0) {
+                break;
+            }
+            out.write(line, copied, valueStart - copied);
+            out.write(map(line.substring(valueStart, valueEnd), base));
+            copied = valueEnd;
+        }
+        out.write(line, copied, line.length() - copied);
+    }
+
+    private String map(String uri, URI base) {
+        URI resolved;
+        try {
+            URI parsed = URI.create(uri);
+            if (parsed.isAbsolute()) {
+                return uri;
+            }
+            resolved = base.resolve(parsed);
+        } catch (IllegalArgumentException e) {
+            // Not a URI we understand (e.g. unescaped spaces): leave it for the player to deal with
+            return uri;
+        }
+        String path = resolved.getPath();
+        return path.endsWith(".m3u8") ? playlists.map(path) : media.map(path);
+    }
+}
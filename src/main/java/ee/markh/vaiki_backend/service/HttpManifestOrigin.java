@@ -0,0 +1,58 @@
+package ee.markh.vaiki_backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Fetches playlists over HTTP(S) from the origin behind the distribution (e.g. the S3 bucket endpoint).
+ */
+final class HttpManifestOrigin implements ManifestOrigin {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final HttpClient client;
+    private final String baseUrl;
+
+    HttpManifestOrigin(URI baseUrl) {
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.baseUrl = baseUrl.toString().replaceFirst("/+$", "");
+    }
+
+    @Override
+    public Optional<byte[]> fetch(String objectPath) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + objectPath))
+                .timeout(TIMEOUT)
+                .GET()
+                .build();
+        HttpResponse<InputStream> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted fetching " + objectPath, e);
+        }
+        try (InputStream body = response.body()) {
+            // S3 answers 403 rather than 404 for missing keys when the caller may not list the bucket
+            if (response.statusCode() == 404 || response.statusCode() == 403) {
+                return Optional.empty();
+            }
+            if (response.statusCode() != 200) {
+                throw new IOException("Origin returned " + response.statusCode() + " for " + objectPath);
+            }
+            byte[] manifest = body.readNBytes(MAX_MANIFEST_BYTES + 1);
+            if (manifest.length > MAX_MANIFEST_BYTES) {
+                throw new IOException("Manifest too large: " + objectPath);
+            }
+            return Optional.of(manifest);
+        }
+    }
+}
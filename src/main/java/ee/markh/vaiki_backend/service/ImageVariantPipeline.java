@@ -0,0 +1,242 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.service.MovieImageStore.ProcessedImage;
+import ee.markh.vaiki_backend.service.MovieImageStore.Variant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Offline stage that turns original posters and backdrops into width-specific variants.
+ * <p>
+ * Originals are read from {@code <source>/<slug>/poster.(jpg|jpeg|png)} and {@code backdrop.*}, the same layout
+ * as the bucket. Each one is scaled to every configured width it is at least as wide as (app.images.poster-widths,
+ * app.images.backdrop-widths; at least one variant per image) and written as progressive JPEG to
+ * {@code <output>/<slug>/<kind>-<width>.jpg}, ready to be synced to the bucket. Images are processed in parallel,
+ * one per core; decoding and scaling are CPU-bound. Dimensions, variant paths and a BlurHash placeholder are then
+ * recorded through {@link MovieImageStore} in batches of app.images.batch-size.
+ * <p>
+ * The JDK's ImageIO only writes JPEG and PNG, so that is what is generated; the variants table records the format
+ * so WebP/AVIF renditions from an external encoder can be added alongside.
+ */
+@Service
+public class ImageVariantPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantPipeline.class);
+
+    private static final List<String> EXTENSIONS = List.of("jpg", "jpeg", "png");
+
+    /** BlurHash is computed from a thumbnail this wide; more pixels do not change the result visibly. */
+    private static final int BLURHASH_SOURCE_WIDTH = 32;
+
+    private final MovieImageStore movieImageStore;
+    private final List<Integer> posterWidths;
+    private final List<Integer> backdropWidths;
+    private final float jpegQuality;
+    private final int batchSize;
+    private final int parallelism;
+
+    public ImageVariantPipeline(
+            MovieImageStore movieImageStore,
+            @Value("${app.images.poster-widths:185,342,500,780}") List<Integer> posterWidths,
+            @Value("${app.images.backdrop-widths:300,780,1280,1920}") List<Integer> backdropWidths,
+            @Value("${app.images.jpeg-quality:0.82}") float jpegQuality,
+            @Value("${app.images.batch-size:500}") int batchSize,
+            @Value("${app.images.parallelism:0}") int parallelism) {
+        this.movieImageStore = movieImageStore;
+        this.posterWidths = posterWidths.stream().sorted().toList();
+        this.backdropWidths = backdropWidths.stream().sorted().toList();
+        this.jpegQuality = jpegQuality;
+        this.batchSize = Math.max(1, batchSize);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Generates variants for every original under {@code source} and records them.
+     *
+     * @return number of images processed; originals that fail to decode are logged and skipped
+     */
+    public int run(Path source, Path output) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        List<Path> originals = findOriginals(source);
+        log.info("Generating image variants for {} originals on {} threads", originals.size(), parallelism);
+
+        int processed = 0;
+        int failed = 0;
+        List<ProcessedImage> batch = new ArrayList<>(batchSize);
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+                Thread.ofPlatform().name("image-variants-", 0).factory())) {
+            List<Future<ProcessedImage>> results = new ArrayList<>(originals.size());
+            for (Path original : originals) {
+                results.add(executor.submit(() -> process(original, output)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    batch.add(results.get(i).get());
+                    processed++;
+                } catch (ExecutionException e) {
+                    failed++;
+                    log.warn("Skipping {}: {}", originals.get(i), e.getCause().toString());
+                }
+                if (batch.size() >= batchSize) {
+                    movieImageStore.saveAll(batch);
+                    batch.clear();
+                }
+            }
+        }
+        movieImageStore.saveAll(batch);
+
+        log.info("Image variants: {} processed, {} failed in {} ms",
+                processed, failed, (System.nanoTime() - started) / 1_000_000);
+        return processed;
+    }
+
+    /**
+     * {@code <source>/<slug>/<kind>.<ext>} for every slug directory, in slug order.
+     */
+    List<Path> findOriginals(Path source) throws IOException {
+        List<Path> originals = new ArrayList<>();
+        try (DirectoryStream<Path> movies = Files.newDirectoryStream(source, Files::isDirectory)) {
+            for (Path movie : movies) {
+                for (String kind : List.of(MovieImageStore.POSTER, MovieImageStore.BACKDROP)) {
+                    EXTENSIONS.stream()
+                            .map(extension -> movie.resolve(kind + "." + extension))
+                            .filter(Files::isRegularFile)
+                            .findFirst()
+                            .ifPresent(originals::add);
+                }
+            }
+        }
+        originals.sort(null);
+        return originals;
+    }
+
+    /**
+     * Decodes one original and writes its variants.
+     */
+    ProcessedImage process(Path original, Path output) throws IOException {
+        String slug = original.getParent().getFileName().toString();
+        String fileName = original.getFileName().toString();
+        String kind = fileName.substring(0, fileName.lastIndexOf('.'));
+
+        BufferedImage image = ImageIO.read(original.toFile());
+        if (image == null) {
+            throw new IOException("Unsupported image format");
+        }
+        image = toRgb(image);
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        Path directory = Files.createDirectories(output.resolve(slug));
+        List<Variant> variants = new ArrayList<>();
+        for (int targetWidth : widthsFor(kind, width)) {
+            BufferedImage scaled = scale(image, targetWidth);
+            String name = kind + "-" + targetWidth + ".jpg";
+            writeJpeg(scaled, directory.resolve(name));
+            variants.add(new Variant("jpeg", scaled.getWidth(), scaled.getHeight(), "/" + slug + "/" + name));
+        }
+
+        String blurhash = BlurHash.encode(scale(image, Math.min(width, BLURHASH_SOURCE_WIDTH)),
+                4, width > height ? 3 : 4);
+        return new ProcessedImage(slug, kind, width, height, blurhash, List.copyOf(variants));
+    }
+
+    /**
+     * Configured widths up to the original's width, or just the original's width if it is narrower than all of them.
+     */
+    List<Integer> widthsFor(String kind, int originalWidth) {
+        List<Integer> configured = MovieImageStore.POSTER.equals(kind) ? posterWidths : backdropWidths;
+        List<Integer> widths = configured.stream().filter(width -> width <= originalWidth).toList();
+        return widths.isEmpty() ? List.of(originalWidth) : widths;
+    }
+
+    /**
+     * Drops alpha (JPEG has none) onto a white background and normalizes the pixel layout for scaling.
+     */
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.drawImage(image, 0, 0, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgb;
+    }
+
+    /**
+     * Scales to {@code targetWidth} keeping the aspect ratio. Halves the image with bilinear steps first: a single
+     * large bicubic step samples too few source pixels and aliases fine detail.
+     */
+    static BufferedImage scale(BufferedImage image, int targetWidth) {
+        BufferedImage current = image;
+        while (current.getWidth() / 2 >= targetWidth) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2,
+                    RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
+        if (current.getWidth() == targetWidth) {
+            return current;
+        }
+        int targetHeight = Math.max(1, Math.round((float) image.getHeight() * targetWidth / image.getWidth()));
+        return draw(current, targetWidth, targetHeight, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, Object interpolation) {
+        BufferedImage target = new BufferedImage(Math.max(1, width), Math.max(1, height), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, target.getWidth(), target.getHeight(), null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void writeJpeg(BufferedImage image, Path file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+        // Progressive JPEGs render a coarse full frame first and are usually a little smaller
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(temporary.toFile())) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        } finally {
+            writer.dispose();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,37 @@
+package ee.markh.vaiki_backend.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Where the HLS proxy reads unsigned playlists from: the HTTP(S) origin behind CloudFront, or a local directory
+ * laid out like the bucket (development and tests).
+ */
+public interface ManifestOrigin {
+
+    /** Playlists larger than this are refused rather than buffered. */
+    int MAX_MANIFEST_BYTES = 1024 * 1024;
+
+    /**
+     * @param objectPath Path within the distribution, e.g. "/metropolis/master.m3u8"
+     * @return the playlist bytes, or empty if the origin has no such object
+     */
+    Optional<byte[]> fetch(String objectPath) throws IOException;
+
+    /**
+     * Creates the origin for app.hls-proxy.origin: a "file:" URI of a directory, or an http(s) base URL.
+     */
+    static ManifestOrigin of(String location) {
+        if (location == null || location.isBlank()) {
+            throw new IllegalStateException("app.hls-proxy.origin must be set when the HLS proxy is enabled");
+        }
+        URI uri = URI.create(location.strip());
+        return switch (uri.getScheme()) {
+            case "file" -> new FileSystemManifestOrigin(Path.of(uri));
+            case "http", "https" -> new HttpManifestOrigin(uri);
+            case null, default -> throw new IllegalStateException("Unsupported app.hls-proxy.origin: " + location);
+        };
+    }
+}
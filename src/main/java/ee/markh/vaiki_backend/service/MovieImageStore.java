@@ -0,0 +1,141 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.dto.ImageDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the image pipeline's output (movie_images, movie_image_variants) with plain JDBC.
+ * <p>
+ * Reads happen once per catalog snapshot and turn the rows into ready-to-serve {@link ImageDto}s, srcset string
+ * included, so requests never assemble URLs. Variant paths are relative to the bucket; app.images.base-url
+ * (the CloudFront distribution by default) is prepended here. Srcsets list the JPEG variants, which every client
+ * can decode; the format column leaves room for WebP/AVIF renditions served through {@code <picture>}.
+ */
+@Service
+public class MovieImageStore {
+
+    public static final String POSTER = "poster";
+    public static final String BACKDROP = "backdrop";
+
+    private static final String SELECT_IMAGES_SQL = "SELECT movie_slug, kind, width, height, blurhash FROM movie_images";
+
+    private static final String SELECT_VARIANTS_SQL = """
+            SELECT movie_slug, kind, width, path
+            FROM movie_image_variants
+            WHERE format = 'jpeg'
+            ORDER BY movie_slug, kind, format, width
+            """;
+
+    private static final String UPSERT_IMAGE_SQL = """
+            INSERT INTO movie_images (movie_slug, kind, width, height, blurhash)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (movie_slug, kind) DO UPDATE SET
+                width = EXCLUDED.width,
+                height = EXCLUDED.height,
+                blurhash = EXCLUDED.blurhash
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String baseUrl;
+
+    public MovieImageStore(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.images.base-url:https://${app.cloudfront.domain}}") String baseUrl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    /**
+     * Every processed image, keyed by movie slug and then kind ({@link #POSTER}, {@link #BACKDROP}).
+     * Two queries regardless of catalog size.
+     */
+    public Map<String, Map<String, ImageDto>> loadAll() {
+        Map<String, List<String>> srcsets = new HashMap<>();
+        Map<String, String> largest = new HashMap<>();
+        jdbcTemplate.query(SELECT_VARIANTS_SQL, rs -> {
+            String key = rs.getString("movie_slug") + '\n' + rs.getString("kind");
+            String url = baseUrl + rs.getString("path");
+            srcsets.computeIfAbsent(key, _ -> new ArrayList<>()).add(url + ' ' + rs.getInt("width") + 'w');
+            // Rows come ordered by width, so the last one is the largest
+            largest.put(key, url);
+        });
+
+        Map<String, Map<String, ImageDto>> images = new HashMap<>();
+        jdbcTemplate.query(SELECT_IMAGES_SQL, rs -> {
+            String slug = rs.getString("movie_slug");
+            String kind = rs.getString("kind");
+            String key = slug + '\n' + kind;
+            if (!largest.containsKey(key)) {
+                return;
+            }
+            images.computeIfAbsent(slug, _ -> new HashMap<>(4)).put(kind, new ImageDto(
+                    largest.get(key),
+                    String.join(", ", srcsets.get(key)),
+                    rs.getInt("width"),
+                    rs.getInt("height"),
+                    rs.getString("blurhash")));
+        });
+        return images;
+    }
+
+    /**
+     * Records processed images, replacing any variants previously recorded for the same movie and kind.
+     * One transaction; three batched statements.
+     */
+    public void saveAll(List<ProcessedImage> processed) {
+        if (processed.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(_ -> {
+            jdbcTemplate.batchUpdate(UPSERT_IMAGE_SQL, processed, processed.size(), (ps, image) -> {
+                ps.setString(1, image.movieSlug());
+                ps.setString(2, image.kind());
+                ps.setInt(3, image.width());
+                ps.setInt(4, image.height());
+                ps.setString(5, image.blurhash());
+            });
+            jdbcTemplate.batchUpdate("DELETE FROM movie_image_variants WHERE movie_slug = ? AND kind = ?",
+                    processed, processed.size(), (ps, image) -> {
+                        ps.setString(1, image.movieSlug());
+                        ps.setString(2, image.kind());
+                    });
+
+            List<Object[]> variantRows = new ArrayList<>();
+            for (ProcessedImage image : processed) {
+                for (Variant variant : image.variants()) {
+                    variantRows.add(new Object[] {image.movieSlug(), image.kind(), variant.format(),
+                            variant.width(), variant.height(), variant.path()});
+                }
+            }
+            jdbcTemplate.batchUpdate("""
+                    INSERT INTO movie_image_variants (movie_slug, kind, format, width, height, path)
+                    VALUES (?, ?, ?, ?, ?, ?)
+                    """, variantRows);
+        });
+    }
+
+    /**
+     * One original image and the variants generated from it.
+     *
+     * @param width  width of the original
+     * @param height height of the original
+     */
+    public record ProcessedImage(String movieSlug, String kind, int width, int height, String blurhash,
+                                 List<Variant> variants) {}
+
+    /**
+     * @param path object path relative to app.images.base-url, e.g. "/metropolis/poster-342.jpg"
+     */
+    public record Variant(String format, int width, int height, String path) {}
+}
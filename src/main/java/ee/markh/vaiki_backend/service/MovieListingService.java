@@ -0,0 +1,204 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.dto.CategoryDto;
+import ee.markh.vaiki_backend.dto.HomeRowDto;
+import ee.markh.vaiki_backend.dto.ImageDto;
+import ee.markh.vaiki_backend.dto.MovieCardDto;
+import ee.markh.vaiki_backend.dto.MovieDto;
+import ee.markh.vaiki_backend.dto.MoviePageDto;
+import ee.markh.vaiki_backend.repository.CategoryMovieView;
+import ee.markh.vaiki_backend.repository.MovieCardView;
+import ee.markh.vaiki_backend.repository.MovieCategoryView;
+import ee.markh.vaiki_backend.repository.MovieRepository;
+import ee.markh.vaiki_backend.repository.MovieRowView;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keyset-paginated movie listings backed by interface projections, so pages never hydrate full
+ * {@code Movie} entities. Each page costs one query for the rows plus, if categories are requested,
+ * one bulk query for their categories. Poster variants come from the in-memory catalog snapshot.
+ * <p>
+ * Unlike the full catalog, these listings read the tables rather than the snapshot: cursors are movie ids in the
+ * live table, so a page fetched after a snapshot swap continues where the previous one stopped instead of skipping
+ * or repeating rows, and each page is an index range scan whose cost does not grow with the catalog.
+ */
+@Service
+@Transactional(readOnly = true)
+public class MovieListingService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /** Fields available from {@link MovieCardView} (plus categories from the collection table, poster from the snapshot). */
+    private static final Set<String> CARD_FIELDS = Set.of("slug", "title", "year", "posterUrl", "poster", "categories");
+
+    /** Every field that can be requested through {@code fields=}. */
+    public static final Set<String> SELECTABLE_FIELDS = Set.of(
+            "slug", "title", "year", "posterUrl", "poster", "categories", "description", "durationMinutes",
+            "backdropUrl", "backdrop", "director", "country", "featured", "featureText");
+
+    private final MovieRepository movieRepository;
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    public MovieListingService(MovieRepository movieRepository, CatalogSnapshotService catalogSnapshotService) {
+        this.movieRepository = movieRepository;
+        this.catalogSnapshotService = catalogSnapshotService;
+    }
+
+    /**
+     * Page of movie cards ordered by id, starting after {@code cursor} (null for the first page).
+     */
+    public MoviePageDto<MovieCardDto> cards(String cursor, int limit) {
+        int pageSize = clampPageSize(limit);
+        List<MovieCardView> rows = movieRepository.findByIdGreaterThanOrderByIdAsc(
+                decodeCursor(cursor), Limit.of(pageSize + 1), MovieCardView.class);
+
+        List<MovieCardView> page = rows.subList(0, Math.min(pageSize, rows.size()));
+        Map<Long, List<String>> categories = categoriesByMovieId(page);
+        List<MovieCardDto> items = page.stream()
+                .map(movie -> MovieCardDto.from(
+                        movie, poster(movie.getSlug()), categories.getOrDefault(movie.getId(), List.of())))
+                .toList();
+        return new MoviePageDto<>(items, nextCursor(rows, pageSize));
+    }
+
+    /**
+     * Page of movies ordered by id containing only the requested {@code fields}.
+     * Only card fields → the card projection is used; anything else → the full scalar row projection.
+     */
+    public MoviePageDto<Map<String, Object>> projected(String cursor, int limit, Set<String> fields) {
+        for (String field : fields) {
+            if (!SELECTABLE_FIELDS.contains(field)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field: " + field);
+            }
+        }
+
+        int pageSize = clampPageSize(limit);
+        Class<? extends MovieCardView> projection = CARD_FIELDS.containsAll(fields) ? MovieCardView.class : MovieRowView.class;
+        List<? extends MovieCardView> rows = movieRepository.findByIdGreaterThanOrderByIdAsc(
+                decodeCursor(cursor), Limit.of(pageSize + 1), projection);
+
+        List<? extends MovieCardView> page = rows.subList(0, Math.min(pageSize, rows.size()));
+        Map<Long, List<String>> categories = fields.contains("categories") ? categoriesByMovieId(page) : Map.of();
+
+        List<Map<String, Object>> items = new ArrayList<>(page.size());
+        for (MovieCardView movie : page) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            for (String field : fields) {
+                item.put(field, switch (field) {
+                    case "slug" -> movie.getSlug();
+                    case "title" -> movie.getTitle();
+                    case "year" -> movie.getYear();
+                    case "posterUrl" -> movie.getPosterUrl();
+                    case "poster" -> poster(movie.getSlug());
+                    case "categories" -> categories.getOrDefault(movie.getId(), List.of());
+                    case "description" -> ((MovieRowView) movie).getDescription();
+                    case "durationMinutes" -> ((MovieRowView) movie).getDurationMinutes();
+                    case "backdropUrl" -> ((MovieRowView) movie).getBackdropUrl();
+                    case "backdrop" -> catalogSnapshotService.current().findMovie(movie.getSlug())
+                            .map(MovieDto::backdrop).orElse(null);
+                    case "director" -> ((MovieRowView) movie).getDirector();
+                    case "country" -> ((MovieRowView) movie).getCountry();
+                    case "featured" -> ((MovieRowView) movie).isFeatured();
+                    case "featureText" -> ((MovieRowView) movie).getFeatureText();
+                    default -> throw new IllegalStateException("Unhandled field: " + field);
+                });
+            }
+            items.add(item);
+        }
+        return new MoviePageDto<>(items, nextCursor(rows, pageSize));
+    }
+
+    /**
+     * Page of movie cards in one category ordered by id, starting after {@code cursor}.
+     */
+    public MoviePageDto<MovieCardDto> categoryCards(String category, String cursor, int limit) {
+        int pageSize = clampPageSize(limit);
+        List<MovieCardView> rows = movieRepository.findCardsByCategory(category, decodeCursor(cursor), pageSize + 1);
+
+        List<MovieCardView> page = rows.subList(0, Math.min(pageSize, rows.size()));
+        Map<Long, List<String>> categories = categoriesByMovieId(page);
+        List<MovieCardDto> items = page.stream()
+                .map(movie -> MovieCardDto.from(
+                        movie, poster(movie.getSlug()), categories.getOrDefault(movie.getId(), List.of())))
+                .toList();
+        return new MoviePageDto<>(items, nextCursor(rows, pageSize));
+    }
+
+    /**
+     * Home page rows: each given category (in the given order) with its first {@code perRow} movies.
+     * Two queries in total regardless of the number of categories: one lateral-join query for the rows
+     * and one bulk query for the movies' category lists.
+     */
+    public List<HomeRowDto> homeRows(List<CategoryDto> rowCategories, int perRow) {
+        if (rowCategories.isEmpty()) {
+            return List.of();
+        }
+        List<String> slugs = rowCategories.stream().map(CategoryDto::slug).toList();
+        List<CategoryMovieView> rows = movieRepository.findTopCardsPerCategory(slugs, clampPageSize(perRow));
+
+        Map<Long, List<String>> categories = categoriesByMovieId(rows);
+        Map<String, List<MovieCardDto>> moviesByCategory = new HashMap<>();
+        for (CategoryMovieView row : rows) {
+            moviesByCategory.computeIfAbsent(row.getCategory(), _ -> new ArrayList<>())
+                    .add(MovieCardDto.from(row, poster(row.getSlug()), categories.getOrDefault(row.getId(), List.of())));
+        }
+        return rowCategories.stream()
+                .map(category -> new HomeRowDto(category, moviesByCategory.getOrDefault(category.slug(), List.of())))
+                .toList();
+    }
+
+    /**
+     * Loads categories for all given movies in a single query.
+     */
+    public Map<Long, List<String>> categoriesByMovieId(List<? extends MovieCardView> movies) {
+        if (movies.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> ids = movies.stream().map(MovieCardView::getId).distinct().toList();
+        Map<Long, List<String>> categories = new HashMap<>();
+        for (MovieCategoryView row : movieRepository.findCategoriesByMovieIds(ids)) {
+            categories.computeIfAbsent(row.getMovieId(), _ -> new ArrayList<>()).add(row.getCategory());
+        }
+        return categories;
+    }
+
+    /**
+     * Poster variants of a movie, from the snapshot (null if not processed yet or not in the snapshot yet).
+     */
+    private ImageDto poster(String slug) {
+        return catalogSnapshotService.current().findMovie(slug).map(MovieDto::poster).orElse(null);
+    }
+
+    private static int clampPageSize(int limit) {
+        return Math.clamp(limit, 1, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Cursors are the last id of the previous page. Clients should treat them as opaque.
+     */
+    private static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+        }
+    }
+
+    private static String nextCursor(List<? extends MovieCardView> rows, int pageSize) {
+        return rows.size() > pageSize ? String.valueOf(rows.get(pageSize - 1).getId()) : null;
+    }
+}
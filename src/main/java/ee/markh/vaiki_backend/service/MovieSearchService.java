@@ -0,0 +1,300 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.dto.CategoryDto;
+import ee.markh.vaiki_backend.dto.MovieDto;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService.CatalogSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over the catalog for type-ahead search.
+ * <p>
+ * Matches title, director, country, description and categories. Text is folded to lowercase ASCII-ish form
+ * (diacritics stripped, so "Õnne" matches "onne"), query terms match as exact words, as prefixes,
+ * or within a small edit distance. Every query term must match for a movie to be returned.
+ * <p>
+ * The index is rebuilt on every {@link CatalogRefreshedEvent}; movies whose DTO did not change reuse their
+ * previous tokenization, so a refresh only re-analyzes added or edited titles.
+ */
+@Service
+public class MovieSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieSearchService.class);
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final float TITLE_WEIGHT = 10f;
+    private static final float DIRECTOR_WEIGHT = 4f;
+    private static final float CATEGORY_WEIGHT = 3f;
+    private static final float COUNTRY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private static final float PREFIX_FACTOR = 0.7f;
+    private static final float FUZZY_FACTOR = 0.4f;
+    /** Caps how many dictionary terms a single short prefix can expand to. */
+    private static final int MAX_PREFIX_EXPANSIONS = 500;
+    private static final int[] NO_TERMS = new int[0];
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private volatile SearchIndex index;
+
+    public MovieSearchService(CatalogSnapshotService catalogSnapshotService) {
+        this.catalogSnapshotService = catalogSnapshotService;
+    }
+
+    @EventListener
+    public void onCatalogRefreshed(CatalogRefreshedEvent event) {
+        rebuild(event.snapshot());
+    }
+
+    /**
+     * Returns up to {@code limit} movies matching every term of {@code query}, best matches first.
+     */
+    public List<MovieDto> search(String query, int limit) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+        SearchIndex current = index;
+        if (current == null) {
+            current = rebuild(catalogSnapshotService.current());
+        }
+
+        Map<Integer, Float> scores = null;
+        for (String term : queryTerms) {
+            Map<Integer, Float> termScores = current.match(term);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                Map<Integer, Float> combined = new HashMap<>();
+                for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+                    Float other = termScores.get(entry.getKey());
+                    if (other != null) {
+                        combined.put(entry.getKey(), entry.getValue() + other);
+                    }
+                }
+                scores = combined;
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        SearchIndex searched = current;
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Float>comparingByValue().reversed()
+                        .thenComparing(entry -> searched.documents().get(entry.getKey()).movie().title()))
+                .limit(limit)
+                .map(entry -> searched.documents().get(entry.getKey()).movie())
+                .toList();
+    }
+
+    private synchronized SearchIndex rebuild(CatalogSnapshot snapshot) {
+        long started = System.nanoTime();
+        Map<String, String> categoryTitles = snapshot.categories().stream()
+                .collect(Collectors.toMap(CategoryDto::slug, CategoryDto::title, (a, _) -> a));
+
+        Map<String, IndexedMovie> previous = index == null ? Map.of() : index.documentsBySlug();
+        List<IndexedMovie> documents = new ArrayList<>(snapshot.movies().size());
+        int reused = 0;
+        for (MovieDto movie : snapshot.movies()) {
+            IndexedMovie existing = previous.get(movie.slug());
+            if (existing != null && existing.movie().equals(movie) && existing.categoryTitles().equals(categoryTitles)) {
+                documents.add(existing);
+                reused++;
+            } else {
+                documents.add(analyze(movie, categoryTitles));
+            }
+        }
+
+        SearchIndex next = SearchIndex.build(documents);
+        index = next;
+        log.info("Search index rebuilt: {} movies ({} reused), {} terms in {} ms",
+                documents.size(), reused, next.terms().length, (System.nanoTime() - started) / 1_000_000);
+        return next;
+    }
+
+    private static IndexedMovie analyze(MovieDto movie, Map<String, String> categoryTitles) {
+        Map<String, Float> weights = new HashMap<>();
+        addTerms(weights, movie.title(), TITLE_WEIGHT);
+        addTerms(weights, movie.director(), DIRECTOR_WEIGHT);
+        addTerms(weights, movie.country(), COUNTRY_WEIGHT);
+        addTerms(weights, movie.description(), DESCRIPTION_WEIGHT);
+        for (String category : movie.categories()) {
+            addTerms(weights, category, CATEGORY_WEIGHT);
+            addTerms(weights, categoryTitles.get(category), CATEGORY_WEIGHT);
+        }
+        return new IndexedMovie(movie, categoryTitles, weights);
+    }
+
+    private static void addTerms(Map<String, Float> weights, String text, float weight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, weight, Math::max);
+        }
+    }
+
+    /**
+     * Lowercases, strips diacritics and splits on anything that is not a letter or digit.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(NON_WORD.split(folded))
+                .filter(term -> !term.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Levenshtein distance between {@code a} and {@code b}, or {@code max + 1} as soon as it is known to exceed {@code max}.
+     */
+    static int boundedEditDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static int allowedTypos(String term) {
+        if (term.length() >= 8) {
+            return 2;
+        }
+        return term.length() >= 4 ? 1 : 0;
+    }
+
+    /**
+     * A movie together with its analyzed terms (term to best field weight).
+     */
+    record IndexedMovie(MovieDto movie, Map<String, String> categoryTitles, Map<String, Float> termWeights) {}
+
+    /**
+     * Immutable inverted index: a sorted term dictionary with, per term, the matching documents and their weights.
+     * {@code fuzzyCandidates} groups term indexes by first character and length ({@link #fuzzyKey}), so a typo
+     * lookup only compares terms that could be within its edit distance instead of scanning the whole dictionary.
+     */
+    record SearchIndex(
+            List<IndexedMovie> documents,
+            Map<String, IndexedMovie> documentsBySlug,
+            String[] terms,
+            int[][] postings,
+            float[][] weights,
+            Map<Long, int[]> fuzzyCandidates
+    ) {
+        static SearchIndex build(List<IndexedMovie> documents) {
+            TreeMap<String, List<int[]>> byTerm = new TreeMap<>();
+            for (int doc = 0; doc < documents.size(); doc++) {
+                for (Map.Entry<String, Float> entry : documents.get(doc).termWeights().entrySet()) {
+                    byTerm.computeIfAbsent(entry.getKey(), _ -> new ArrayList<>())
+                            .add(new int[] {doc, Float.floatToIntBits(entry.getValue())});
+                }
+            }
+
+            String[] terms = byTerm.keySet().toArray(String[]::new);
+            int[][] postings = new int[terms.length][];
+            float[][] weights = new float[terms.length][];
+            int t = 0;
+            for (List<int[]> entries : byTerm.values()) {
+                postings[t] = new int[entries.size()];
+                weights[t] = new float[entries.size()];
+                for (int i = 0; i < entries.size(); i++) {
+                    postings[t][i] = entries.get(i)[0];
+                    weights[t][i] = Float.intBitsToFloat(entries.get(i)[1]);
+                }
+                t++;
+            }
+
+            Map<Long, List<Integer>> buckets = new HashMap<>();
+            for (int i = 0; i < terms.length; i++) {
+                buckets.computeIfAbsent(fuzzyKey(terms[i].charAt(0), terms[i].length()), _ -> new ArrayList<>()).add(i);
+            }
+            Map<Long, int[]> fuzzyCandidates = new HashMap<>(buckets.size() * 2);
+            buckets.forEach((key, indexes) ->
+                    fuzzyCandidates.put(key, indexes.stream().mapToInt(Integer::intValue).toArray()));
+
+            Map<String, IndexedMovie> bySlug = documents.stream()
+                    .collect(Collectors.toUnmodifiableMap(doc -> doc.movie().slug(), Function.identity()));
+            return new SearchIndex(
+                    List.copyOf(documents), bySlug, terms, postings, weights, Map.copyOf(fuzzyCandidates));
+        }
+
+        static long fuzzyKey(char first, int length) {
+            return ((long) first << 32) | length;
+        }
+
+        /**
+         * Scores every document matching {@code term} exactly, as a prefix, or within the allowed edit distance.
+         * A document's score is its best match for this term.
+         */
+        Map<Integer, Float> match(String term) {
+            Map<Integer, Float> scores = new HashMap<>();
+
+            int start = Arrays.binarySearch(terms, term);
+            if (start >= 0) {
+                collect(start, 1f, scores);
+                start++;
+            } else {
+                start = -start - 1;
+            }
+            for (int t = start, n = 0; t < terms.length && terms[t].startsWith(term) && n < MAX_PREFIX_EXPANSIONS; t++, n++) {
+                collect(t, PREFIX_FACTOR, scores);
+            }
+
+            // Typos are assumed to spare the first letter, and a length gap above `typos` is never close enough
+            int typos = allowedTypos(term);
+            for (int length = term.length() - typos; typos > 0 && length <= term.length() + typos; length++) {
+                for (int t : fuzzyCandidates.getOrDefault(fuzzyKey(term.charAt(0), length), NO_TERMS)) {
+                    String candidate = terms[t];
+                    if (!candidate.startsWith(term) && boundedEditDistance(term, candidate, typos) <= typos) {
+                        collect(t, FUZZY_FACTOR, scores);
+                    }
+                }
+            }
+            return scores;
+        }
+
+        private void collect(int termIndex, float factor, Map<Integer, Float> scores) {
+            int[] docs = postings[termIndex];
+            float[] docWeights = weights[termIndex];
+            for (int i = 0; i < docs.length; i++) {
+                scores.merge(docs[i], docWeights[i] * factor, Math::max);
+            }
+        }
+    }
+}
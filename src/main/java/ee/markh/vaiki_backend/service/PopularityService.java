@@ -0,0 +1,309 @@
+package ee.markh.vaiki_backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ranks movies by how often their playback URL is requested, over exponentially decaying 1h, 24h and 7d windows.
+ * <p>
+ * Requests only increment a striped {@link LongAdder} per slug. Every app.popularity.refresh-interval the counts
+ * are drained and folded into per-window scores ({@code score = score * e^(-elapsed/window) + count}), and the
+ * top app.popularity.top-k slugs per window are published as an immutable ranking that readers fetch without locks.
+ * <p>
+ * movie_popularity holds the scores of all instances together. Every app.popularity.persist-interval and on
+ * shutdown, each instance adds only what it counted since its last persist: the upsert decays the stored row and
+ * the new counts to the later of their timestamps and sums them. Instances therefore never overwrite each other's
+ * counts, and a retried persist cannot add the same counts twice because they are removed only after the
+ * transaction commits. On startup the rows are loaded (decayed by the downtime), so restarts keep the ranking.
+ */
+@Service
+public class PopularityService {
+
+    private static final Logger log = LoggerFactory.getLogger(PopularityService.class);
+
+    /** Scores below this in every window are dropped. */
+    private static final double MIN_SCORE = 0.01;
+
+    private static final String SELECT_SQL =
+            "SELECT movie_slug, score_1h, score_24h, score_7d, updated_at FROM movie_popularity";
+
+    private static final String MERGE_SQL = """
+            INSERT INTO movie_popularity AS p (movie_slug, score_1h, score_24h, score_7d, updated_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (movie_slug) DO UPDATE SET
+                score_1h = %s,
+                score_24h = %s,
+                score_7d = %s,
+                updated_at = greatest(p.updated_at, EXCLUDED.updated_at)
+            """.formatted(
+                    decayedSum("score_1h", Window.HOUR),
+                    decayedSum("score_24h", Window.DAY),
+                    decayedSum("score_7d", Window.WEEK));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int topK;
+    private final ConcurrentHashMap<String, LongAdder> pending = new ConcurrentHashMap<>();
+    /** Slug to score per {@link Window} ordinal; only touched while holding this service's monitor. */
+    private final Map<String, double[]> scores = new HashMap<>();
+    /** The part of {@link #scores} counted here since the last successful persist, decayed the same way. */
+    private final Map<String, double[]> unpersisted = new HashMap<>();
+    private Instant lastTick = Instant.now();
+    private volatile Map<Window, List<RankedMovie>> rankings = emptyRankings();
+
+    public PopularityService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.popularity.top-k:50}") int topK) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.topK = topK;
+    }
+
+    /**
+     * Counts one playback request. Lock-free apart from the first request for a slug.
+     */
+    public void record(String slug) {
+        pending.computeIfAbsent(slug, _ -> new LongAdder()).increment();
+    }
+
+    /**
+     * The current top movies of a window, best first (at most app.popularity.top-k).
+     */
+    public List<RankedMovie> top(Window window) {
+        return rankings.get(window);
+    }
+
+    @Scheduled(fixedDelayString = "${app.popularity.refresh-interval:PT1M}")
+    public void refresh() {
+        tick(Instant.now());
+    }
+
+    /**
+     * Decays all scores to {@code now}, folds in the counts recorded since the last tick and republishes the rankings.
+     */
+    synchronized void tick(Instant now) {
+        double[] decay = decayFactors(Duration.between(lastTick, now));
+        lastTick = now;
+
+        for (Map<String, double[]> map : List.of(scores, unpersisted)) {
+            map.values().forEach(windowScores -> {
+                for (int w = 0; w < windowScores.length; w++) {
+                    windowScores[w] *= decay[w];
+                }
+            });
+        }
+        pending.forEach((slug, adder) -> {
+            long count = adder.sumThenReset();
+            if (count > 0) {
+                addCount(scores, slug, count);
+                addCount(unpersisted, slug, count);
+            }
+        });
+        scores.values().removeIf(windowScores -> Arrays.stream(windowScores).allMatch(score -> score < MIN_SCORE));
+        unpersisted.values().removeIf(windowScores -> Arrays.stream(windowScores).allMatch(score -> score < MIN_SCORE));
+
+        Map<Window, List<RankedMovie>> next = new EnumMap<>(Window.class);
+        for (Window window : Window.values()) {
+            next.put(window, topOf(window));
+        }
+        rankings = next;
+    }
+
+    private List<RankedMovie> topOf(Window window) {
+        Comparator<RankedMovie> byScore = Comparator.comparingDouble(RankedMovie::score);
+        PriorityQueue<RankedMovie> best = new PriorityQueue<>(topK + 1, byScore);
+        scores.forEach((slug, windowScores) -> {
+            best.add(new RankedMovie(slug, windowScores[window.ordinal()]));
+            if (best.size() > topK) {
+                best.poll();
+            }
+        });
+        List<RankedMovie> ranked = new ArrayList<>(best);
+        ranked.sort(byScore.reversed().thenComparing(RankedMovie::slug));
+        return List.copyOf(ranked);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        load(Instant.now());
+    }
+
+    /**
+     * Adds the stored scores of all instances, decayed to {@code now}.
+     */
+    synchronized void load(Instant now) {
+        try {
+            jdbcTemplate.query(SELECT_SQL, rs -> {
+                double[] decay = decayFactors(Duration.between(rs.getTimestamp("updated_at").toInstant(), now));
+                double[] windowScores = {rs.getDouble("score_1h"), rs.getDouble("score_24h"), rs.getDouble("score_7d")};
+                for (int w = 0; w < windowScores.length; w++) {
+                    windowScores[w] *= decay[w];
+                }
+                scores.merge(rs.getString("movie_slug"), windowScores, PopularityService::add);
+            });
+        } catch (DataAccessException e) {
+            log.warn("Failed to load popularity scores, starting from zero", e);
+        }
+        lastTick = now;
+        tick(now);
+        log.info("Popularity scores loaded for {} movies", scores.size());
+    }
+
+    /**
+     * Merges what this instance counted since the last persist into movie_popularity, in one transaction.
+     */
+    @Scheduled(
+            initialDelayString = "${app.popularity.persist-interval:PT5M}",
+            fixedDelayString = "${app.popularity.persist-interval:PT5M}")
+    public void persist() {
+        persist(Instant.now());
+    }
+
+    void persist(Instant now) {
+        List<Map.Entry<String, double[]>> rows;
+        Instant asOf;
+        synchronized (this) {
+            tick(now);
+            asOf = lastTick;
+            rows = new ArrayList<>(unpersisted.size());
+            unpersisted.forEach((slug, windowScores) -> rows.add(Map.entry(slug, windowScores)));
+            unpersisted.clear();
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(_ -> jdbcTemplate.batchUpdate(MERGE_SQL, rows, 500, (ps, row) -> {
+                ps.setString(1, row.getKey());
+                ps.setDouble(2, row.getValue()[Window.HOUR.ordinal()]);
+                ps.setDouble(3, row.getValue()[Window.DAY.ordinal()]);
+                ps.setDouble(4, row.getValue()[Window.WEEK.ordinal()]);
+                ps.setObject(5, OffsetDateTime.ofInstant(asOf, ZoneOffset.UTC));
+            }));
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Failed to persist {} popularity scores, retrying with the next persist", rows.size(), e);
+            synchronized (this) {
+                // Nothing was committed: hand the counts back, decayed to the current tick
+                double[] decay = decayFactors(Duration.between(asOf, lastTick));
+                for (Map.Entry<String, double[]> row : rows) {
+                    double[] windowScores = row.getValue();
+                    for (int w = 0; w < windowScores.length; w++) {
+                        windowScores[w] *= decay[w];
+                    }
+                    unpersisted.merge(row.getKey(), windowScores, PopularityService::add);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void persistOnShutdown() {
+        persist();
+    }
+
+    private static void addCount(Map<String, double[]> map, String slug, long count) {
+        double[] windowScores = map.computeIfAbsent(slug, _ -> new double[Window.values().length]);
+        for (int w = 0; w < windowScores.length; w++) {
+            windowScores[w] += count;
+        }
+    }
+
+    /**
+     * SQL for the stored and the new score of one window, each decayed to the later of the two timestamps, summed.
+     * Exponents are capped at 50 windows (e^-50 ≈ 2e-22) so Postgres never reports a float underflow.
+     */
+    private static String decayedSum(String column, Window window) {
+        String decayTo = "exp(-least(50, extract(epoch from greatest(p.updated_at, EXCLUDED.updated_at) - %s)"
+                + "::double precision / " + window.duration().toSeconds() + "))";
+        return "p." + column + " * " + decayTo.formatted("p.updated_at")
+                + " + EXCLUDED." + column + " * " + decayTo.formatted("EXCLUDED.updated_at");
+    }
+
+    private static double[] decayFactors(Duration elapsed) {
+        double seconds = Math.max(0, elapsed.toMillis() / 1000.0);
+        double[] factors = new double[Window.values().length];
+        for (Window window : Window.values()) {
+            factors[window.ordinal()] = Math.exp(-seconds / window.duration().toSeconds());
+        }
+        return factors;
+    }
+
+    private static double[] add(double[] a, double[] b) {
+        double[] sum = a.clone();
+        for (int w = 0; w < sum.length; w++) {
+            sum[w] += b[w];
+        }
+        return sum;
+    }
+
+    private static Map<Window, List<RankedMovie>> emptyRankings() {
+        Map<Window, List<RankedMovie>> empty = new EnumMap<>(Window.class);
+        for (Window window : Window.values()) {
+            empty.put(window, List.of());
+        }
+        return empty;
+    }
+
+    public record RankedMovie(String slug, double score) {}
+
+    /**
+     * Decay windows: a request's weight falls to 1/e after {@code duration}.
+     */
+    public enum Window {
+        HOUR("1h", Duration.ofHours(1)),
+        DAY("24h", Duration.ofHours(24)),
+        WEEK("7d", Duration.ofDays(7));
+
+        private final String label;
+        private final Duration duration;
+
+        Window(String label, Duration duration) {
+            this.label = label;
+            this.duration = duration;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public Duration duration() {
+            return duration;
+        }
+
+        /**
+         * @return the window labelled 1h, 24h or 7d, or empty for anything else
+         */
+        public static Optional<Window> fromLabel(String label) {
+            return Arrays.stream(values())
+                    .filter(window -> window.label.equals(label))
+                    .findFirst();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package ee.markh.vaiki_backend.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import ee.markh.vaiki_backend.exception.RetryLaterException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind store for viewers' resume positions.
+ * <p>
+ * Positions are kept per viewer in a bounded Caffeine cache (app.playback.resume-cache-size viewers).
+ * Updates go to the cache and to a dirty map, keyed by viewer and then movie, that coalesces them per
+ * (viewer, movie); a scheduled flush upserts the dirty entries in one JDBC batch and only then drops them, so a
+ * failed flush is simply retried. The dirty map holds at most app.playback.resume-buffer-size positions.
+ * <p>
+ * {@link #peek} never waits for the database: on a cache miss it starts an asynchronous load and answers from
+ * not-yet-flushed updates only. Loads run on a small dedicated pool, which also bounds their database concurrency.
+ */
+@Service
+public class ResumePositionStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumePositionStore.class);
+
+    /** Positions loaded per viewer; older ones are never shown in "Continue watching". */
+    private static final int LOAD_LIMIT = 100;
+
+    private static final String SELECT_SQL = """
+            SELECT movie_slug, position_seconds, updated_at
+            FROM resume_positions
+            WHERE viewer_id = ?
+            ORDER BY updated_at DESC
+            LIMIT ?
+            """;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO resume_positions (viewer_id, movie_slug, position_seconds, updated_at)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (viewer_id, movie_slug) DO UPDATE SET
+                position_seconds = EXCLUDED.position_seconds,
+                updated_at = EXCLUDED.updated_at
+            WHERE resume_positions.updated_at <= EXCLUDED.updated_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExecutorService loadExecutor;
+    private final AsyncLoadingCache<String, ConcurrentHashMap<String, Position>> cache;
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Position>> dirty = new ConcurrentHashMap<>();
+    private final AtomicInteger dirtyPositions = new AtomicInteger();
+    private final int maxDirtyPositions;
+
+    public ResumePositionStore(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.playback.resume-cache-size:50000}") long maximumViewers,
+            @Value("${app.playback.resume-cache-idle:PT2H}") Duration idleExpiry,
+            @Value("${app.playback.resume-buffer-size:100000}") int maxDirtyPositions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxDirtyPositions = maxDirtyPositions;
+        this.loadExecutor = Executors.newFixedThreadPool(2, Thread.ofPlatform().name("resume-load-", 0).daemon().factory());
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumViewers)
+                .expireAfterAccess(idleExpiry)
+                .executor(loadExecutor)
+                .recordStats()
+                .buildAsync(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "resumePositions");
+        meterRegistry.gauge("vaiki.resume.positions.dirty", dirtyPositions);
+    }
+
+    /**
+     * Records the viewer's position in a movie. Never touches the database. Rejects it with 503 if the dirty map
+     * is full and the (viewer, movie) pair is not already in it (flushes are falling behind).
+     */
+    public void record(String viewerId, String movieSlug, int positionSeconds) {
+        Position position = new Position(positionSeconds, Instant.now());
+        // Dirty map first: a load that starts after this line sees the update through the overlay in load(),
+        // and one that started before it has already registered the future the update is chained onto below.
+        dirty.compute(viewerId, (_, unflushed) -> {
+            ConcurrentHashMap<String, Position> positions = unflushed != null ? unflushed : new ConcurrentHashMap<>();
+            if (!positions.containsKey(movieSlug)) {
+                if (dirtyPositions.get() >= maxDirtyPositions) {
+                    throw new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE, "Resume position buffer is full",
+                            Duration.ofSeconds(10));
+                }
+                dirtyPositions.incrementAndGet();
+            }
+            positions.merge(movieSlug, position, Position::latest);
+            return positions;
+        });
+        CompletableFuture<ConcurrentHashMap<String, Position>> loaded = cache.getIfPresent(viewerId);
+        if (loaded != null) {
+            loaded.thenAccept(positions -> positions.merge(movieSlug, position, Position::latest));
+        }
+    }
+
+    /**
+     * Returns the viewer's position in a movie if it is already in memory, without blocking.
+     * A miss starts loading the viewer's positions in the background for subsequent calls.
+     */
+    public Optional<Position> peek(String viewerId, String movieSlug) {
+        CompletableFuture<ConcurrentHashMap<String, Position>> loaded = cache.get(viewerId);
+        if (loaded.isDone() && !loaded.isCompletedExceptionally()) {
+            return Optional.ofNullable(loaded.join().get(movieSlug));
+        }
+        ConcurrentHashMap<String, Position> positions = dirty.get(viewerId);
+        return positions == null ? Optional.empty() : Optional.ofNullable(positions.get(movieSlug));
+    }
+
+    /**
+     * Returns the viewer's positions, most recently updated first. Waits for the viewer's positions to load
+     * (this is the one read whose whole answer is stored data).
+     */
+    public CompletableFuture<List<Map.Entry<String, Position>>> recent(String viewerId) {
+        return cache.get(viewerId).thenApply(positions -> positions.entrySet().stream()
+                .sorted(Map.Entry.<String, Position>comparingByValue(Comparator.comparing(Position::updatedAt)).reversed())
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .toList());
+    }
+
+    /**
+     * Upserts every dirty position in one batch. Entries are removed only if they were not updated meanwhile.
+     *
+     * @return number of positions written
+     */
+    @Scheduled(fixedDelayString = "${app.playback.resume-flush-interval:PT5S}")
+    public synchronized int flush() {
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        List<Map.Entry<Key, Position>> batch = new ArrayList<>(dirtyPositions.get());
+        dirty.forEach((viewerId, positions) -> positions.forEach(
+                (movieSlug, position) -> batch.add(Map.entry(new Key(viewerId, movieSlug), position))));
+
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch, 500, (ps, entry) -> {
+                ps.setString(1, entry.getKey().viewerId());
+                ps.setString(2, entry.getKey().movieSlug());
+                ps.setInt(3, entry.getValue().positionSeconds());
+                ps.setObject(4, OffsetDateTime.ofInstant(entry.getValue().updatedAt(), ZoneOffset.UTC));
+            });
+        } catch (DataAccessException e) {
+            log.warn("Failed to flush {} resume positions, retrying on next run", batch.size(), e);
+            return 0;
+        }
+        batch.forEach(entry -> dirty.computeIfPresent(entry.getKey().viewerId(), (_, positions) -> {
+            if (positions.remove(entry.getKey().movieSlug(), entry.getValue())) {
+                dirtyPositions.decrementAndGet();
+            }
+            return positions.isEmpty() ? null : positions;
+        }));
+        return batch.size();
+    }
+
+    public int dirtyPositions() {
+        return dirtyPositions.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        int written = flush();
+        log.info("Flushed {} resume positions on shutdown", written);
+        loadExecutor.shutdownNow();
+    }
+
+    private ConcurrentHashMap<String, Position> load(String viewerId) {
+        ConcurrentHashMap<String, Position> positions = new ConcurrentHashMap<>();
+        jdbcTemplate.query(SELECT_SQL, rs -> {
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            positions.put(rs.getString("movie_slug"),
+                    new Position(rs.getInt("position_seconds"), updatedAt.toInstant()));
+        }, viewerId, LOAD_LIMIT);
+        // Updates not yet flushed are newer than anything in the table.
+        ConcurrentHashMap<String, Position> unflushed = dirty.get(viewerId);
+        if (unflushed != null) {
+            unflushed.forEach((movieSlug, position) -> positions.merge(movieSlug, position, Position::latest));
+        }
+        return positions;
+    }
+
+    public record Position(int positionSeconds, Instant updatedAt) {
+
+        static Position latest(Position a, Position b) {
+            return b.updatedAt().isBefore(a.updatedAt()) ? a : b;
+        }
+    }
+
+    record Key(String viewerId, String movieSlug) {}
+}
@@ -0,0 +1,135 @@
+package ee.markh.vaiki_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import ee.markh.vaiki_backend.service.CloudFrontSignerService.SignedCookiesResult;
+import ee.markh.vaiki_backend.service.CloudFrontSignerService.SignedUrlResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Caches signed playback URLs so that concurrent viewers of the same movie share one RSA signature.
+ * <p>
+ * Expiries are rounded up to the next multiple of the bucket size (app.cloudfront.url-expiry-bucket-seconds),
+ * so every request for the same path and TTL within a bucket maps to the same expiry and therefore the same URL.
+ * Rounding up means a returned URL is always valid for at least the requested TTL. An entry is evicted as soon as
+ * its bucket can no longer be chosen (now + ttl has moved past its expiry), which keeps that guarantee without
+ * ever serving a URL that is about to expire.
+ * <p>
+ * Requested TTLs are clamped to app.cloudfront.min-ttl-seconds..max-ttl-seconds, so callers can neither mint
+ * long-lived URLs nor defeat the cache with a distinct TTL per request.
+ * Signed cookies for wildcard resources are cached the same way.
+ * Hit/miss/eviction counts are published under the "signedUrls" and "signedCookies" cache metrics.
+ */
+@Service
+public class SignedUrlCache {
+
+    private final CloudFrontSignerService cloudFrontSignerService;
+    private final long bucketSeconds;
+    private final int minTtlSeconds;
+    private final int maxTtlSeconds;
+    private final Clock clock;
+    private final Cache<Key, SignedUrlResult> cache;
+    private final Cache<Key, SignedCookiesResult> cookieCache;
+
+    @Autowired
+    public SignedUrlCache(
+            CloudFrontSignerService cloudFrontSignerService,
+            MeterRegistry meterRegistry,
+            @Value("${app.cloudfront.url-expiry-bucket-seconds:300}") long bucketSeconds,
+            @Value("${app.cloudfront.signed-url-cache-size:10000}") long maximumSize,
+            @Value("${app.cloudfront.min-ttl-seconds:60}") int minTtlSeconds,
+            @Value("${app.cloudfront.max-ttl-seconds:14400}") int maxTtlSeconds) {
+        this(cloudFrontSignerService, meterRegistry, bucketSeconds, maximumSize, minTtlSeconds, maxTtlSeconds,
+                Clock.systemUTC());
+    }
+
+    /**
+     * With a fixed {@code clock}, tests decide which bucket a request falls into.
+     */
+    SignedUrlCache(
+            CloudFrontSignerService cloudFrontSignerService,
+            MeterRegistry meterRegistry,
+            long bucketSeconds,
+            long maximumSize,
+            int minTtlSeconds,
+            int maxTtlSeconds,
+            Clock clock) {
+        this.cloudFrontSignerService = cloudFrontSignerService;
+        this.bucketSeconds = Math.max(1, bucketSeconds);
+        this.minTtlSeconds = Math.max(1, minTtlSeconds);
+        this.maxTtlSeconds = Math.max(this.minTtlSeconds, maxTtlSeconds);
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.creating((Key key, SignedUrlResult _) -> key.timeToLive(clock.instant())))
+                .recordStats()
+                .build();
+        this.cookieCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.creating((Key key, SignedCookiesResult _) -> key.timeToLive(clock.instant())))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "signedUrls");
+        CaffeineCacheMetrics.monitor(meterRegistry, cookieCache, "signedCookies");
+    }
+
+    /**
+     * Returns a signed URL for the object path valid for at least {@code expiresInSeconds}
+     * (or the configured default TTL, either clamped to the allowed range), signing it only if no other request
+     * in the same bucket already did.
+     */
+    public SignedUrlResult getSignedUrl(String objectPath, Integer expiresInSeconds) {
+        int ttl = ttlSeconds(expiresInSeconds);
+        Key key = new Key(objectPath, bucketedExpiry(clock.instant(), ttl), ttl);
+        return cache.get(key, k -> cloudFrontSignerService.signUrl(k.objectPath(), Instant.ofEpochSecond(k.expiresAtEpochSecond())));
+    }
+
+    /**
+     * Returns signed cookies for a wildcard resource (e.g. "/metropolis/*") valid for at least
+     * {@code expiresInSeconds} (or the configured default TTL), using the same clamping and bucketing as signed URLs.
+     */
+    public SignedCookiesResult getSignedCookies(String resourcePattern, Integer expiresInSeconds) {
+        int ttl = ttlSeconds(expiresInSeconds);
+        Key key = new Key(resourcePattern, bucketedExpiry(clock.instant(), ttl), ttl);
+        return cookieCache.get(key, k -> cloudFrontSignerService.getSignedCookies(k.objectPath(), Instant.ofEpochSecond(k.expiresAtEpochSecond())));
+    }
+
+    public String getDistributionDomain() {
+        return cloudFrontSignerService.getDistributionDomain();
+    }
+
+    int ttlSeconds(Integer requested) {
+        int ttl = requested != null ? requested : cloudFrontSignerService.getDefaultTtlSeconds();
+        return Math.clamp(ttl, minTtlSeconds, maxTtlSeconds);
+    }
+
+    /**
+     * Rounds now + ttl up to the next bucket boundary. The bucket never exceeds the TTL itself,
+     * so short-lived URLs don't end up living several times longer than asked for.
+     */
+    long bucketedExpiry(Instant now, int ttlSeconds) {
+        long bucket = Math.max(1, Math.min(bucketSeconds, ttlSeconds));
+        long earliest = now.getEpochSecond() + ttlSeconds;
+        return Math.ceilDiv(earliest, bucket) * bucket;
+    }
+
+    record Key(String objectPath, long expiresAtEpochSecond, int ttlSeconds) {
+
+        /**
+         * The entry stops being selectable once now + ttl passes its expiry.
+         */
+        Duration timeToLive(Instant now) {
+            long seconds = expiresAtEpochSecond - ttlSeconds - now.getEpochSecond();
+            return Duration.ofSeconds(Math.max(0, seconds));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+-- Schema as generated by Hibernate (ddl-auto=update) before Flyway was introduced. Existing databases are
+-- baselined at this version (spring.flyway.baseline-on-migrate), so this script only runs against empty ones and
+-- must not contain anything those databases lack: later tables and indexes go into their own migrations.
+
+CREATE TABLE movies (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    slug             VARCHAR(255)  NOT NULL,
+    title            VARCHAR(255)  NOT NULL,
+    year             INTEGER,
+    description      VARCHAR(2000),
+    duration_minutes INTEGER,
+    poster_url       VARCHAR(255),
+    backdrop_url     VARCHAR(255),
+    director         VARCHAR(255),
+    country          VARCHAR(255),
+    hls_path         VARCHAR(255),
+    featured         BOOLEAN       NOT NULL,
+    feature_text     VARCHAR(255),
+    CONSTRAINT uk_movies_slug UNIQUE (slug)
+);
+
+CREATE TABLE movie_categories (
+    movie_id BIGINT       NOT NULL REFERENCES movies (id),
+    category VARCHAR(255)
+);
+
+CREATE TABLE categories (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    slug        VARCHAR(255) NOT NULL,
+    title       VARCHAR(255) NOT NULL,
+    order_index INTEGER      NOT NULL,
+    visible     BOOLEAN      NOT NULL,
+    CONSTRAINT uk_categories_slug UNIQUE (slug)
+);
@@ -0,0 +1,16 @@
+-- Indexes for the repository queries that run against the catalog tables. IF NOT EXISTS because databases
+-- baselined from Hibernate's schema may already have some of them.
+
+-- MovieRepository.findFirstByFeaturedTrue: a partial index holds only the few featured rows,
+-- so the lookup reads one tiny index instead of scanning every movie for featured = true.
+CREATE INDEX IF NOT EXISTS idx_movies_featured ON movies (id) WHERE featured;
+
+-- CategoryRepository.findByVisibleTrueOrderByOrderIndex: partial on visible, ordered by order_index and
+-- covering every column the entity selects, so the query is an index-only scan with no sort.
+CREATE INDEX IF NOT EXISTS idx_categories_visible_order ON categories (order_index)
+    INCLUDE (id, slug, title, visible)
+    WHERE visible;
+
+-- movie_categories by movie: the categories entity graph join, @BatchSize loads, findCategoriesByMovieIds and
+-- the import's delete by movie id. (category, movie_id) cannot serve these because movie_id is not its prefix.
+CREATE INDEX IF NOT EXISTS idx_movie_categories_movie ON movie_categories (movie_id) INCLUDE (category);
@@ -0,0 +1,25 @@
+-- Bumps catalog_version and notifies listeners on 'catalog_changed' after any write to the catalog tables.
+-- Statement-level, so a bulk write sends one notification per statement; Postgres delivers them on commit.
+CREATE SEQUENCE IF NOT EXISTS catalog_version_seq;
+
+CREATE OR REPLACE FUNCTION notify_catalog_changed() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('catalog_changed', nextval('catalog_version_seq')::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS movies_catalog_changed ON movies;
+CREATE TRIGGER movies_catalog_changed
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON movies
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_catalog_changed();
+
+DROP TRIGGER IF EXISTS movie_categories_catalog_changed ON movie_categories;
+CREATE TRIGGER movie_categories_catalog_changed
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON movie_categories
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_catalog_changed();
+
+DROP TRIGGER IF EXISTS categories_catalog_changed ON categories;
+CREATE TRIGGER categories_catalog_changed
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON categories
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_catalog_changed();
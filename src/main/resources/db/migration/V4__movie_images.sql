@@ -0,0 +1,31 @@
+-- Responsive poster/backdrop images, written by the offline image pipeline (ImageVariantPipeline) and read once
+-- per catalog snapshot. Keyed by slug like the other per-movie tables, so images can be generated before or
+-- independently of a catalog import.
+
+-- One row per original image: its dimensions (for aspect-ratio placeholders) and a BlurHash of it.
+CREATE TABLE movie_images (
+    movie_slug VARCHAR(255) NOT NULL,
+    kind       VARCHAR(16)  NOT NULL,
+    width      INTEGER      NOT NULL,
+    height     INTEGER      NOT NULL,
+    blurhash   VARCHAR(64)  NOT NULL,
+    PRIMARY KEY (movie_slug, kind)
+);
+
+-- One row per resized rendition. The snapshot reads the whole table in primary key order, so srcsets come out
+-- sorted by width without a sort step.
+CREATE TABLE movie_image_variants (
+    movie_slug VARCHAR(255) NOT NULL,
+    kind       VARCHAR(16)  NOT NULL,
+    format     VARCHAR(16)  NOT NULL,
+    width      INTEGER      NOT NULL,
+    height     INTEGER      NOT NULL,
+    path       VARCHAR(512) NOT NULL,
+    PRIMARY KEY (movie_slug, kind, format, width)
+);
+
+-- Running instances rebuild their snapshot after a pipeline batch commits (see V3). Every batch rewrites the
+-- variants of the images it touches, so one trigger covers both tables.
+CREATE TRIGGER movie_image_variants_catalog_changed
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON movie_image_variants
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_catalog_changed();
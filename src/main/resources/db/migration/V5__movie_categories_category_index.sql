@@ -0,0 +1,3 @@
+-- Category rows (MovieRepository.findCardsByCategory, findTopCardsPerCategory) look movies up by category.
+-- IF NOT EXISTS: databases created by Hibernate after the index was declared on Movie.categories already have it.
+CREATE INDEX IF NOT EXISTS idx_movie_categories_category_movie ON movie_categories (category, movie_id);
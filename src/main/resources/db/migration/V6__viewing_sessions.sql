@@ -0,0 +1,12 @@
+-- Playback heartbeats, one row per session, upserted in batches by HeartbeatBuffer.
+-- IF NOT EXISTS: databases that ran the app with ddl-auto=update before Flyway may already have it.
+CREATE TABLE IF NOT EXISTS viewing_sessions (
+    session_id        VARCHAR(64)                 PRIMARY KEY,
+    movie_slug        VARCHAR(255)                NOT NULL,
+    position_seconds  INTEGER                     NOT NULL,
+    started_at        TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    last_heartbeat_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    heartbeat_count   BIGINT                      NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_viewing_sessions_movie_last_heartbeat ON viewing_sessions (movie_slug, last_heartbeat_at);
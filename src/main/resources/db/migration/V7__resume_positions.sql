@@ -0,0 +1,11 @@
+-- Last playback position per viewer and movie, written behind by ResumePositionStore.
+-- IF NOT EXISTS: databases that ran the app with ddl-auto=update before Flyway may already have it.
+CREATE TABLE IF NOT EXISTS resume_positions (
+    viewer_id        VARCHAR(64)                 NOT NULL,
+    movie_slug       VARCHAR(255)                NOT NULL,
+    position_seconds INTEGER                     NOT NULL,
+    updated_at       TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (viewer_id, movie_slug)
+);
+
+CREATE INDEX IF NOT EXISTS idx_resume_positions_viewer_updated ON resume_positions (viewer_id, updated_at);
@@ -0,0 +1,9 @@
+-- Decayed playback-request scores persisted by PopularityService so trending survives restarts.
+-- IF NOT EXISTS: databases that ran the app with ddl-auto=update before Flyway may already have it.
+CREATE TABLE IF NOT EXISTS movie_popularity (
+    movie_slug VARCHAR(255)                PRIMARY KEY,
+    score_1h   DOUBLE PRECISION            NOT NULL,
+    score_24h  DOUBLE PRECISION            NOT NULL,
+    score_7d   DOUBLE PRECISION            NOT NULL,
+    updated_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
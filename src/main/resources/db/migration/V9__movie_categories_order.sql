@@ -0,0 +1,17 @@
+-- Movie.categories is an ordered list (@OrderColumn): without a position the rows come back in whatever order
+-- the heap returns them, so /api/movies and findCategoriesByMovieIds could list a movie's categories differently.
+ALTER TABLE movie_categories ADD COLUMN IF NOT EXISTS category_index INTEGER;
+
+-- Existing rows keep their physical (insertion) order.
+UPDATE movie_categories mc
+SET category_index = ordered.category_index
+FROM (SELECT ctid, row_number() OVER (PARTITION BY movie_id ORDER BY ctid) - 1 AS category_index
+      FROM movie_categories) ordered
+WHERE mc.ctid = ordered.ctid
+  AND mc.category_index IS NULL;
+
+ALTER TABLE movie_categories ALTER COLUMN category_index SET NOT NULL;
+
+-- Same lookups as before (V2), now also returning each movie's categories in list order.
+DROP INDEX IF EXISTS idx_movie_categories_movie;
+CREATE INDEX idx_movie_categories_movie ON movie_categories (movie_id, category_index) INCLUDE (category);
@@ -0,0 +1,62 @@
+package ee.markh.vaiki_backend;
+
+import ee.markh.vaiki_backend.entity.Category;
+import ee.markh.vaiki_backend.entity.Movie;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic catalog data of arbitrary size for tests and benchmarks.
+ */
+public final class CatalogFixtures {
+
+    public static final List<String> CATEGORY_SLUGS = List.of("classics", "war", "comedies", "noir", "silent");
+
+    private static final String DESCRIPTION =
+            "A widow is pursued by several men who want her late husband's fortune; she teams up with a charming stranger. ";
+
+    private CatalogFixtures() {
+    }
+
+    /**
+     * Unsaved movies with realistic field sizes (multi-sentence description, two categories each).
+     */
+    public static List<Movie> movies(int count) {
+        List<Movie> movies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String slug = "movie-" + i;
+            movies.add(Movie.builder()
+                    .slug(slug)
+                    .title("Movie Number " + i)
+                    .year(1920 + i % 60)
+                    .description(DESCRIPTION.repeat(1 + i % 8))
+                    .durationMinutes(80 + i % 70)
+                    .posterUrl("https://d111111abcdef8.cloudfront.net/" + slug + "/poster.jpg")
+                    .backdropUrl("https://d111111abcdef8.cloudfront.net/" + slug + "/backdrop.jpg")
+                    .categories(new ArrayList<>(List.of(
+                            CATEGORY_SLUGS.get(i % CATEGORY_SLUGS.size()),
+                            CATEGORY_SLUGS.get((i + 1) % CATEGORY_SLUGS.size()))))
+                    .director("Director " + i % 500)
+                    .country(i % 3 == 0 ? "Estonia" : "United States")
+                    .hlsPath("/" + slug + "/master.m3u8")
+                    .featured(i == 0)
+                    .build());
+        }
+        return movies;
+    }
+
+    public static List<Category> categories() {
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORY_SLUGS.size(); i++) {
+            String slug = CATEGORY_SLUGS.get(i);
+            categories.add(Category.builder()
+                    .slug(slug)
+                    .title(Character.toUpperCase(slug.charAt(0)) + slug.substring(1))
+                    .orderIndex(i)
+                    .visible(true)
+                    .build());
+        }
+        return categories;
+    }
+}
@@ -0,0 +1,95 @@
+package ee.markh.vaiki_backend.config;
+
+import ee.markh.vaiki_backend.CatalogFixtures;
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import ee.markh.vaiki_backend.repository.MovieRepository;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that the hot-path meters are registered and populated by real requests.
+ */
+class MetricsIntegrationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @BeforeEach
+    void setUp() {
+        movieRepository.deleteAll();
+        movieRepository.saveAll(CatalogFixtures.movies(10));
+        catalogSnapshotService.refresh();
+    }
+
+    @Test
+    void playbackRequestsAreCountedPerSlugAndSigningIsTimed() throws Exception {
+        double before = playbackCount("movie-3");
+
+        assertThat(get("/api/movies/movie-3/playback-url").statusCode()).isEqualTo(200);
+        assertThat(get("/api/movies/movie-3/playback-url").statusCode()).isEqualTo(200);
+
+        assertThat(playbackCount("movie-3") - before).isEqualTo(2);
+        assertThat(meterRegistry.get("vaiki.cloudfront.signing").tag("type", "url").timer().count()).isPositive();
+    }
+
+    @Test
+    void unknownSlugsAreCountedPerEndpoint() throws Exception {
+        Counter notFound = meterRegistry.counter("vaiki.movies.not.found", "endpoint", "movie");
+        double before = notFound.count();
+
+        assertThat(get("/api/movies/no-such-movie").statusCode()).isEqualTo(404);
+
+        assertThat(notFound.count() - before).isEqualTo(1);
+    }
+
+    @Test
+    void statementsPerRequestAndRepositoryCallsAreRecorded() throws Exception {
+        assertThat(get("/api/movies?limit=5").statusCode()).isEqualTo(200);
+
+        DistributionSummary statements = meterRegistry.get("vaiki.http.jdbc.statements")
+                .tag("method", "GET")
+                .tag("uri", "/api/movies")
+                .summary();
+        assertThat(statements.count()).isPositive();
+        assertThat(statements.max()).isGreaterThanOrEqualTo(1);
+
+        assertThat(meterRegistry.get("vaiki.repository.invocations")
+                .tag("repository", "MovieRepository")
+                .tag("method", "findByIdGreaterThanOrderByIdAsc")
+                .tag("exception", "none")
+                .timer()
+                .count()).isPositive();
+    }
+
+    private double playbackCount(String slug) {
+        return meterRegistry.counter("vaiki.playback.requests", "slug", slug, "delivery", "url").count();
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,140 @@
+package ee.markh.vaiki_backend.config;
+
+import ee.markh.vaiki_backend.exception.RetryLaterException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlaybackRateLimiterTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+    private static final String SECRET = "origin-verify-secret";
+    /** A CloudFront edge: after X-Forwarded-For processing this is the remote address of every viewer behind it. */
+    private static final String EDGE = "130.176.1.1";
+
+    private SimpleMeterRegistry meterRegistry;
+    private PlaybackRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // One token per second, bursts of five
+        limiter = new PlaybackRateLimiter(true, 60, 5, 1000, "CloudFront-Viewer-Address", "X-Origin-Verify", SECRET,
+                meterRegistry);
+    }
+
+    @Test
+    void allowsBurstThenRefillsAtRate() {
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("203.0.113.7", 1, now)).isZero();
+        }
+
+        assertThat(limiter.tryAcquire("203.0.113.7", 1, now)).isEqualTo(SECOND);
+        assertThat(limiter.tryAcquire("203.0.113.7", 1, now + SECOND)).isZero();
+        assertThat(limiter.tryAcquire("203.0.113.7", 1, now + SECOND)).isPositive();
+
+        // Other clients have their own bucket
+        assertThat(limiter.tryAcquire("203.0.113.8", 1, now)).isZero();
+    }
+
+    @Test
+    void idleBucketRefillsOnlyUpToBurst() {
+        long now = 1_000 * SECOND;
+        limiter.tryAcquire("203.0.113.7", 5, now);
+
+        long later = now + 3_600 * SECOND;
+        assertThat(limiter.tryAcquire("203.0.113.7", 5, later)).isZero();
+        assertThat(limiter.tryAcquire("203.0.113.7", 1, later)).isPositive();
+    }
+
+    @Test
+    void rejectsRequestsCostingMoreThanBurst() {
+        assertThat(limiter.tryAcquire("203.0.113.7", PlaybackRateLimiter.BATCH_COST, 1_000 * SECOND)).isPositive();
+    }
+
+    @Test
+    void groupsIpv6ByNetwork() {
+        assertThat(PlaybackRateLimiter.clientKey("2001:db8:0:1::1"))
+                .isEqualTo(PlaybackRateLimiter.clientKey("2001:db8:0:1:ffff::2"))
+                .isNotEqualTo(PlaybackRateLimiter.clientKey("2001:db8:0:2::1"));
+        assertThat(PlaybackRateLimiter.clientKey("203.0.113.7")).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void rejectsWithRetryAfterOnceExhausted() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/movies/metropolis/playback-url");
+        request.setRemoteAddr("203.0.113.7");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/movies/{slug}/playback-url");
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.preHandle(request, new MockHttpServletResponse(), null)).isTrue();
+        }
+
+        assertThatThrownBy(() -> limiter.preHandle(request, new MockHttpServletResponse(), null))
+                .isInstanceOfSatisfying(RetryLaterException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                    assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+                });
+        assertThat(meterRegistry.get("vaiki.rate-limit.rejected")
+                .tag("uri", "/api/movies/{slug}/playback-url").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void viewersBehindOneEdgeGetTheirOwnBuckets() {
+        MockHttpServletRequest first = viaCloudFront("198.51.100.10, " + EDGE, "198.51.100.10:46532", SECRET);
+        MockHttpServletRequest second = viaCloudFront("203.0.113.20, " + EDGE, "203.0.113.20:51000", SECRET);
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.preHandle(first, new MockHttpServletResponse(), null)).isTrue();
+        }
+
+        assertThat(limiter.clientAddress(first)).isEqualTo("198.51.100.10");
+        assertThat(limiter.preHandle(second, new MockHttpServletResponse(), null)).isTrue();
+        assertThatThrownBy(() -> limiter.preHandle(first, new MockHttpServletResponse(), null))
+                .isInstanceOf(RetryLaterException.class);
+    }
+
+    @Test
+    void viewerAddressIsIgnoredWithoutTheOriginSecret() {
+        assertThat(limiter.clientAddress(viaCloudFront("198.51.100.10, " + EDGE, "198.51.100.10:46532", "guess")))
+                .isEqualTo(EDGE);
+        assertThat(limiter.clientAddress(viaCloudFront("198.51.100.10, " + EDGE, "198.51.100.10:46532", null)))
+                .isEqualTo(EDGE);
+
+        PlaybackRateLimiter withoutSecret = new PlaybackRateLimiter(true, 60, 5, 1000, "CloudFront-Viewer-Address",
+                "X-Origin-Verify", "", meterRegistry);
+        assertThat(withoutSecret.clientAddress(viaCloudFront("198.51.100.10, " + EDGE, "198.51.100.10:46532", "")))
+                .isEqualTo(EDGE);
+    }
+
+    @Test
+    void stripsPortFromIpv4AndIpv6ViewerAddresses() {
+        assertThat(PlaybackRateLimiter.withoutPort("198.51.100.10:46532")).isEqualTo("198.51.100.10");
+        assertThat(PlaybackRateLimiter.withoutPort("2001:db8:0:1::7:443")).isEqualTo("2001:db8:0:1::7");
+    }
+
+    /**
+     * A request as it reaches the app through CloudFront and the platform's load balancer: the forwarded-header
+     * processing has stopped at the edge, the first untrusted hop.
+     */
+    private static MockHttpServletRequest viaCloudFront(String forwardedFor, String viewerAddress, String verify) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/movies/metropolis/playback-url");
+        request.setRemoteAddr(EDGE);
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        request.addHeader("CloudFront-Viewer-Address", viewerAddress);
+        if (verify != null) {
+            request.addHeader("X-Origin-Verify", verify);
+        }
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/movies/{slug}/playback-url");
+        return request;
+    }
+}
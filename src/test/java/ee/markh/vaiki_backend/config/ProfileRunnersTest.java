@@ -0,0 +1,36 @@
+package ee.markh.vaiki_backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The one-off runners are always registered (AOT fixes bean conditions at build time) and decide from the
+ * runtime profiles whether to do anything.
+ */
+class ProfileRunnersTest {
+
+    @Test
+    void runnersDoNothingWithoutTheirProfile() {
+        MockEnvironment environment = new MockEnvironment();
+        environment.setActiveProfiles("prod");
+
+        assertThatCode(() -> new DataSeeder().seedData(environment, null, null, "").run()).doesNotThrowAnyException();
+        assertThatCode(() -> new CatalogImportRunner().importCatalog(environment, null, "", "upsert").run())
+                .doesNotThrowAnyException();
+        assertThatCode(() -> new ImageVariantRunner().generateImageVariants(environment, null, "", "").run())
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void activeProfileIsHonouredAtRunTime() {
+        MockEnvironment environment = new MockEnvironment();
+        environment.setActiveProfiles("prod", "import");
+
+        assertThatThrownBy(() -> new CatalogImportRunner().importCatalog(environment, null, "", "upsert").run())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("app.import.file");
+    }
+}
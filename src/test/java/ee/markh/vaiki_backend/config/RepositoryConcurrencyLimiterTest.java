@@ -0,0 +1,161 @@
+package ee.markh.vaiki_backend.config;
+
+import ee.markh.vaiki_backend.CatalogFixtures;
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import ee.markh.vaiki_backend.dto.HeartbeatRequest;
+import ee.markh.vaiki_backend.repository.MovieRepository;
+import ee.markh.vaiki_backend.service.HeartbeatBuffer;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * With every permit and every pooled connection taken, a request through a {@code @Transactional} service must
+ * be rejected by the limiter before its transaction waits for a connection. Background JDBC work shares the permits,
+ * so it waits for one rather than taking a connection that a permitted request would then queue for.
+ */
+@TestPropertySource(properties = {
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=5000",
+        "app.db.max-concurrency=2",
+        "app.db.acquire-timeout=PT0.1S"
+})
+class RepositoryConcurrencyLimiterTest extends PostgresIntegrationTest {
+
+    private static final int PERMITS = 2;
+
+    @Autowired
+    private RepositoryConcurrencyLimiter limiter;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private HeartbeatBuffer heartbeatBuffer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Test
+    void saturatedLimiterAnswersListingWith503BeforeTheConnectionTimeout() throws Exception {
+        movieRepository.deleteAll();
+        movieRepository.saveAll(CatalogFixtures.movies(5));
+
+        CountDownLatch holding = new CountDownLatch(PERMITS);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> holders = new ArrayList<>();
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < PERMITS; i++) {
+                holders.add(Thread.ofPlatform().start(() -> holdPermit(holding, release)));
+            }
+            holding.await();
+            for (int i = 0; i < PERMITS; i++) {
+                connections.add(dataSource.getConnection());
+            }
+            assertThat(limiter.availablePermits()).isZero();
+
+            long started = System.nanoTime();
+            HttpResponse<String> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/movies?limit=5")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assertThat(response.statusCode()).isEqualTo(503);
+            assertThat(response.headers().firstValue("Retry-After")).isPresent();
+            assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(3));
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+            release.countDown();
+            for (Thread holder : holders) {
+                holder.join();
+            }
+        }
+
+        assertThat(limiter.availablePermits()).isEqualTo(PERMITS);
+    }
+
+    @Test
+    void flushWaitsForAPermitInsteadOfTakingAPooledConnection() throws Exception {
+        heartbeatBuffer.record(new HeartbeatRequest("movie-1", "limiter-session", 42));
+
+        CountDownLatch holding = new CountDownLatch(PERMITS);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> holders = new ArrayList<>();
+        AtomicInteger flushed = new AtomicInteger(-1);
+        try {
+            for (int i = 0; i < PERMITS; i++) {
+                holders.add(Thread.ofPlatform().start(() -> holdPermit(holding, release)));
+            }
+            holding.await();
+
+            Thread flusher = Thread.ofPlatform().start(() -> flushed.set(heartbeatBuffer.flush()));
+            flusher.join(Duration.ofMillis(500));
+
+            // Still waiting for a permit, and not holding any of the pool's connections while it does
+            assertThat(flusher.isAlive()).isTrue();
+            assertThat(dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections()).isZero();
+
+            // A request now gets the limiter's fast 503, not a 500 after queueing in Hikari
+            HttpResponse<String> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/movies?limit=5")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(response.statusCode()).isEqualTo(503);
+
+            release.countDown();
+            assertThat(flusher.join(Duration.ofSeconds(5))).isTrue();
+        } finally {
+            release.countDown();
+            for (Thread holder : holders) {
+                holder.join();
+            }
+        }
+
+        assertThat(flushed.get()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT position_seconds FROM viewing_sessions WHERE session_id = 'limiter-session'", Integer.class))
+                .isEqualTo(42);
+        assertThat(limiter.availablePermits()).isEqualTo(PERMITS);
+    }
+
+    /**
+     * Runs a call through the limiter that keeps its permit until {@code release} opens.
+     */
+    private void holdPermit(CountDownLatch holding, CountDownLatch release) {
+        ProxyFactory proxyFactory = new ProxyFactory((Runnable) () -> {
+            holding.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        proxyFactory.addAdvice(limiter);
+        ((Runnable) proxyFactory.getProxy()).run();
+    }
+}
@@ -0,0 +1,95 @@
+package ee.markh.vaiki_backend.controller;
+
+import ee.markh.vaiki_backend.CatalogFixtures;
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import ee.markh.vaiki_backend.repository.MovieRepository;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cache-Control and Vary as seen by the CDN, through the whole stack (CORS processing included).
+ */
+class CacheHeadersTest extends PostgresIntegrationTest {
+
+    private static final String ORIGIN = "http://localhost:5173";
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @BeforeEach
+    void setUp() {
+        movieRepository.deleteAll();
+        movieRepository.saveAll(CatalogFixtures.movies(3));
+        catalogSnapshotService.refresh();
+    }
+
+    @Test
+    void catalogIsPubliclyCacheableAndVariesByOriginAndEncoding() throws Exception {
+        HttpResponse<Void> response = get("/api/movies");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Cache-Control"))
+                .hasValue("max-age=60, public, stale-if-error=86400, stale-while-revalidate=300");
+        assertThat(response.headers().firstValue("Access-Control-Allow-Origin")).hasValue(ORIGIN);
+        assertThat(vary(response)).contains("Origin", "Accept-Encoding").doesNotHaveDuplicates();
+    }
+
+    @Test
+    void listingsUseShorterPolicy() throws Exception {
+        HttpResponse<Void> response = get("/api/movies/search?q=movie");
+
+        assertThat(response.headers().firstValue("Cache-Control"))
+                .hasValue("max-age=30, public, stale-if-error=86400, stale-while-revalidate=60");
+        assertThat(vary(response)).contains("Origin");
+    }
+
+    @Test
+    void playbackUrlIsNeverStored() throws Exception {
+        HttpResponse<Void> response = get("/api/movies/movie-1/playback-url");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Cache-Control")).hasValue("no-store, private");
+    }
+
+    @Test
+    void errorsCarryNoCachePolicy() throws Exception {
+        HttpResponse<Void> response = get("/api/movies/no-such-movie");
+
+        assertThat(response.statusCode()).isEqualTo(404);
+        assertThat(response.headers().firstValue("Cache-Control")).isEmpty();
+    }
+
+    private HttpResponse<Void> get(String path) throws Exception {
+        return HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                        .header("Origin", ORIGIN)
+                        .header("Accept-Encoding", "gzip")
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static List<String> vary(HttpResponse<?> response) {
+        return response.headers().allValues("Vary").stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .toList();
+    }
+}
@@ -0,0 +1,137 @@
+package ee.markh.vaiki_backend.controller;
+
+import ee.markh.vaiki_backend.CatalogFixtures;
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import ee.markh.vaiki_backend.entity.Category;
+import ee.markh.vaiki_backend.entity.Movie;
+import ee.markh.vaiki_backend.repository.CategoryRepository;
+import ee.markh.vaiki_backend.repository.MovieRepository;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Category rows (/api/categories/{slug}/movies) and the home page (/api/home) against the real
+ * findCardsByCategory and findTopCardsPerCategory queries.
+ */
+class CategoryRowsTest extends PostgresIntegrationTest {
+
+    private static final int MOVIES = 30;
+    private static final String HIDDEN = "silent";
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @BeforeEach
+    void setUp() {
+        movieRepository.deleteAll();
+        categoryRepository.deleteAll();
+        List<Category> categories = CatalogFixtures.categories();
+        categories.getLast().setVisible(false);
+        categoryRepository.saveAll(categories);
+        movieRepository.saveAll(CatalogFixtures.movies(MOVIES));
+        catalogSnapshotService.refresh();
+    }
+
+    @Test
+    void categoryPagesWalkTheCategoryInIdOrder() throws Exception {
+        List<String> slugs = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            JsonNode page = getJson("/api/categories/noir/movies?limit=5" + (cursor != null ? "&cursor=" + cursor : ""));
+            page.get("items").valueStream().forEach(item -> {
+                assertThat(item.get("categories").valueStream().map(JsonNode::asString)).contains("noir");
+                slugs.add(item.get("slug").asString());
+            });
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asString();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(slugs).containsExactlyElementsOf(slugsIn("noir", MOVIES));
+        assertThat(pages).isEqualTo(3);
+    }
+
+    @Test
+    void categoryLimitIsClamped() throws Exception {
+        assertThat(getJson("/api/categories/noir/movies?limit=0").get("items").size()).isEqualTo(1);
+        assertThat(getJson("/api/categories/noir/movies?limit=500").get("items").size())
+                .isEqualTo(slugsIn("noir", MOVIES).size());
+    }
+
+    @Test
+    void hiddenOrUnknownCategoryIs404() throws Exception {
+        assertThat(get("/api/categories/" + HIDDEN + "/movies").statusCode()).isEqualTo(404);
+        assertThat(get("/api/categories/no-such-category/movies").statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void homeListsVisibleCategoriesByOrderIndexWithTheirFirstMovies() throws Exception {
+        JsonNode rows = getJson("/api/home?perRow=3");
+
+        // orderIndex order from the fixtures, not alphabetical
+        assertThat(rows.valueStream().map(row -> row.get("category").get("slug").asString()))
+                .containsExactly("classics", "war", "comedies", "noir");
+        for (JsonNode row : rows.valueStream().toList()) {
+            String category = row.get("category").get("slug").asString();
+            assertThat(row.get("movies").valueStream().map(movie -> movie.get("slug").asString()))
+                    .as(category)
+                    .containsExactlyElementsOf(slugsIn(category, MOVIES).subList(0, 3));
+        }
+    }
+
+    @Test
+    void homeRowsShowEveryMovieOfShortCategories() throws Exception {
+        JsonNode rows = getJson("/api/home?perRow=100");
+
+        for (JsonNode row : rows.valueStream().toList()) {
+            String category = row.get("category").get("slug").asString();
+            assertThat(row.get("movies").size()).as(category).isEqualTo(slugsIn(category, MOVIES).size());
+        }
+    }
+
+    /** Slugs of the fixture movies in {@code category}, in id (= creation) order. */
+    private static List<String> slugsIn(String category, int movies) {
+        return CatalogFixtures.movies(movies).stream()
+                .filter(movie -> movie.getCategories().contains(category))
+                .map(Movie::getSlug)
+                .toList();
+    }
+
+    private JsonNode getJson(String path) throws Exception {
+        HttpResponse<String> response = get(path);
+        assertThat(response.statusCode()).isEqualTo(200);
+        return jsonMapper.readTree(response.body());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,74 @@
+package ee.markh.vaiki_backend.controller;
+
+import ee.markh.vaiki_backend.service.EncodedJson;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EncodedJsonResponsesTest {
+
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(1))
+            .cachePublic()
+            .staleWhileRevalidate(Duration.ofMinutes(5));
+
+    private final EncodedJson body = EncodedJson.encode(
+            ("[" + "{\"slug\":\"charade-1963\",\"title\":\"Charade\"},".repeat(20) + "{}]")
+                    .getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void servesGzipWhenBrotliIsNotAccepted() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+
+        ResponseEntity<byte[]> response = EncodedJsonResponses.ok(body, headers, CACHE_CONTROL);
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getBody()).isEqualTo(body.gzip());
+        assertThat(response.getHeaders().getETag()).isEqualTo(body.etag("gzip"));
+    }
+
+    @Test
+    void servesIdentityWhenCodingsAreRefused() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, br;q=0");
+
+        ResponseEntity<byte[]> response = EncodedJsonResponses.ok(body, headers, CACHE_CONTROL);
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getBody()).isEqualTo(body.identity());
+        assertThat(response.getHeaders().getETag()).isEqualTo(body.etag());
+    }
+
+    @Test
+    void answersMatchingIfNoneMatchWithNotModified() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        headers.setIfNoneMatch(body.etag("gzip"));
+
+        ResponseEntity<byte[]> response = EncodedJsonResponses.ok(body, headers, CACHE_CONTROL);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+    }
+
+    @Test
+    void notModifiedKeepsCachePolicy() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(body.etag());
+
+        ResponseEntity<byte[]> notModified = EncodedJsonResponses.ok(body, headers, CACHE_CONTROL);
+        ResponseEntity<byte[]> full = EncodedJsonResponses.ok(body, new HttpHeaders(), CACHE_CONTROL);
+
+        assertThat(notModified.getHeaders().getCacheControl())
+                .isEqualTo(full.getHeaders().getCacheControl())
+                .isEqualTo("max-age=60, public, stale-while-revalidate=300");
+        assertThat(notModified.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+    }
+}
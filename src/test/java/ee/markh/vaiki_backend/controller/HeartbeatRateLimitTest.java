@@ -0,0 +1,74 @@
+package ee.markh.vaiki_backend.controller;
+
+import ee.markh.vaiki_backend.CatalogFixtures;
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import ee.markh.vaiki_backend.repository.MovieRepository;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService;
+import ee.markh.vaiki_backend.service.HeartbeatBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Heartbeats go through the playback rate limiter, so one client cannot fill the heartbeat buffer with made-up
+ * session ids.
+ */
+@TestPropertySource(properties = {
+        "app.rate-limit.enabled=true",
+        "app.rate-limit.playback.requests-per-minute=1",
+        "app.rate-limit.playback.burst=3"
+})
+class HeartbeatRateLimitTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private HeartbeatBuffer heartbeatBuffer;
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @BeforeEach
+    void setUp() {
+        movieRepository.deleteAll();
+        movieRepository.saveAll(CatalogFixtures.movies(2));
+        catalogSnapshotService.refresh();
+        heartbeatBuffer.flush();
+    }
+
+    @Test
+    void newSessionsBeyondTheBurstAreRejectedWith429() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(heartbeat("rate-session-" + i).statusCode()).isEqualTo(202);
+        }
+
+        HttpResponse<String> rejected = heartbeat("rate-session-3");
+
+        assertThat(rejected.statusCode()).isEqualTo(429);
+        assertThat(rejected.headers().firstValue("Retry-After")).isPresent();
+        assertThat(heartbeatBuffer.bufferedSessions()).isEqualTo(3);
+    }
+
+    private HttpResponse<String> heartbeat(String sessionId) throws Exception {
+        String json = "{\"movieSlug\": \"movie-1\", \"sessionId\": \"" + sessionId + "\", \"positionSeconds\": 42}";
+        return HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/playback/heartbeat"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
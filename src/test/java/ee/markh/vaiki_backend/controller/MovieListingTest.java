@@ -0,0 +1,166 @@
+package ee.markh.vaiki_backend.controller;
+
+import ee.markh.vaiki_backend.CatalogFixtures;
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import ee.markh.vaiki_backend.entity.Movie;
+import ee.markh.vaiki_backend.repository.MovieRepository;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.context.TestPropertySource;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The keyset-paginated /api/movies?limit= listing: cursors, page size, field projection and category order.
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ee.markh.vaiki_backend.controller.MovieListingTest$RecordingStatementInspector")
+class MovieListingTest extends PostgresIntegrationTest {
+
+    private static final int MOVIES = 25;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @BeforeEach
+    void setUp() {
+        movieRepository.deleteAll();
+        List<Movie> movies = CatalogFixtures.movies(MOVIES);
+        // Deliberately not alphabetical, so the listing has to keep the stored order
+        movies.getFirst().setCategories(new ArrayList<>(List.of("war", "noir", "classics")));
+        movieRepository.saveAll(movies);
+        catalogSnapshotService.refresh();
+    }
+
+    @Test
+    void cursorWalksEveryMovieOnceAndEndsWithNullCursor() throws Exception {
+        List<String> slugs = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            JsonNode page = getJson("/api/movies?limit=10" + (cursor != null ? "&cursor=" + cursor : ""));
+            page.get("items").valueStream().forEach(item -> slugs.add(item.get("slug").asString()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asString();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(slugs).hasSize(MOVIES).doesNotHaveDuplicates()
+                .containsExactlyInAnyOrderElementsOf(movieRepository.findAll().stream().map(Movie::getSlug).toList());
+    }
+
+    @Test
+    void exactlyFullLastPageHasNoNextCursor() throws Exception {
+        JsonNode page = getJson("/api/movies?limit=" + MOVIES);
+
+        assertThat(page.get("items").size()).isEqualTo(MOVIES);
+        assertThat(page.get("nextCursor").isNull()).isTrue();
+    }
+
+    @Test
+    void limitIsClampedToOneToOneHundred() throws Exception {
+        movieRepository.saveAll(CatalogFixtures.movies(150).subList(MOVIES, 150));
+
+        assertThat(getJson("/api/movies?limit=0").get("items").size()).isEqualTo(1);
+        assertThat(getJson("/api/movies?limit=-5").get("items").size()).isEqualTo(1);
+        JsonNode capped = getJson("/api/movies?limit=500");
+        assertThat(capped.get("items").size()).isEqualTo(100);
+        assertThat(capped.get("nextCursor").isNull()).isFalse();
+    }
+
+    @Test
+    void cardFieldsUseTheCardProjection() throws Exception {
+        RecordingStatementInspector.STATEMENTS.clear();
+        JsonNode item = getJson("/api/movies?limit=2&fields=slug,title,categories").get("items").get(0);
+
+        assertThat(item.propertyNames()).containsExactly("slug", "title", "categories");
+        assertThat(movieSelects()).hasSize(1).allSatisfy(sql -> assertThat(sql).doesNotContain("description"));
+    }
+
+    @Test
+    void otherFieldsUseTheRowProjection() throws Exception {
+        RecordingStatementInspector.STATEMENTS.clear();
+        JsonNode item = getJson("/api/movies?limit=2&fields=slug,director").get("items").get(0);
+
+        assertThat(item.propertyNames()).containsExactly("slug", "director");
+        assertThat(item.get("director").asString()).isEqualTo("Director 0");
+        assertThat(movieSelects()).hasSize(1).allSatisfy(sql -> assertThat(sql).contains("description", "director"));
+    }
+
+    @Test
+    void unknownFieldOrMalformedCursorIs400() throws Exception {
+        assertThat(get("/api/movies?limit=10&fields=slug,password").statusCode()).isEqualTo(400);
+        assertThat(get("/api/movies?limit=10&cursor=abc").statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    void categoriesKeepTheirStoredOrderLikeTheFullCatalog() throws Exception {
+        JsonNode card = getJson("/api/movies?limit=1").get("items").get(0);
+        JsonNode projected = getJson("/api/movies?limit=1&fields=categories").get("items").get(0);
+        JsonNode catalog = getJson("/api/movies").valueStream()
+                .filter(movie -> movie.get("slug").asString().equals("movie-0"))
+                .findFirst().orElseThrow();
+
+        assertThat(card.get("categories").valueStream().map(JsonNode::asString))
+                .containsExactly("war", "noir", "classics");
+        assertThat(projected.get("categories")).isEqualTo(card.get("categories"));
+        assertThat(catalog.get("categories")).isEqualTo(card.get("categories"));
+    }
+
+    /** SQL statements that read the movies table itself (not movie_categories). */
+    private static List<String> movieSelects() {
+        return RecordingStatementInspector.STATEMENTS.stream()
+                .filter(sql -> sql.startsWith("select") && sql.contains(" from movies "))
+                .toList();
+    }
+
+    private JsonNode getJson(String path) throws Exception {
+        HttpResponse<String> response = get(path);
+        assertThat(response.statusCode()).isEqualTo(200);
+        return jsonMapper.readTree(response.body());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Records the SQL Hibernate sends, to tell which projection a listing used.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final Queue<String> STATEMENTS = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package ee.markh.vaiki_backend.controller;
+
+import ee.markh.vaiki_backend.CatalogFixtures;
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import ee.markh.vaiki_backend.TestKeys;
+import ee.markh.vaiki_backend.entity.Movie;
+import ee.markh.vaiki_backend.repository.MovieRepository;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.context.TestPropertySource;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The playback URL, batch signing and signed-cookie endpoints through the whole stack.
+ */
+@TestPropertySource(properties = "app.cloudfront.cookie-domain=.vaiki.test")
+class PlaybackEndpointsTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @BeforeEach
+    void setUp() {
+        movieRepository.deleteAll();
+        List<Movie> movies = CatalogFixtures.movies(3);
+        movies.get(2).setHlsPath(null);
+        movieRepository.saveAll(movies);
+        catalogSnapshotService.refresh();
+    }
+
+    @Test
+    void batchSignsKnownSlugsAndListsTheRestAsMissing() throws Exception {
+        HttpResponse<String> response = post("/api/movies/playback-urls",
+                "{\"slugs\": [\"movie-1\", \"no-such-movie\", \"movie-0\", \"movie-1\", \"movie-2\"]}");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        JsonNode body = jsonMapper.readTree(response.body());
+        assertThat(body.get("urls").propertyNames()).containsExactly("movie-1", "movie-0");
+        assertThat(body.get("urls").get("movie-0").get("url").asString())
+                .startsWith("https://" + TestKeys.DOMAIN + "/movie-0/master.m3u8?Expires=")
+                .contains("&Signature=", "&Key-Pair-Id=" + TestKeys.KEY_PAIR_ID);
+        // Unknown slugs and movies without HLS content do not fail the batch
+        assertThat(body.get("missing").valueStream().map(JsonNode::asString))
+                .containsExactly("no-such-movie", "movie-2");
+    }
+
+    @Test
+    void batchRejectsMoreThanOneHundredSlugsAndEmptyBatches() throws Exception {
+        String tooMany = IntStream.range(0, 101)
+                .mapToObj(i -> "\"movie-" + i + "\"")
+                .collect(Collectors.joining(", ", "{\"slugs\": [", "]}"));
+
+        assertThat(post("/api/movies/playback-urls", tooMany).statusCode()).isEqualTo(400);
+        assertThat(post("/api/movies/playback-urls", "{\"slugs\": []}").statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    void cookiesCoverTheMovieDirectory() throws Exception {
+        HttpResponse<String> response = get("/api/movies/movie-1/playback-cookies?ttl=600");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(jsonMapper.readTree(response.body()).get("url").asString())
+                .isEqualTo("https://" + TestKeys.DOMAIN + "/movie-1/master.m3u8");
+
+        List<String> setCookies = response.headers().allValues("Set-Cookie");
+        Map<String, HttpCookie> cookies = setCookies.stream()
+                .map(header -> HttpCookie.parse(header).getFirst())
+                .collect(Collectors.toMap(HttpCookie::getName, cookie -> cookie));
+        assertThat(cookies).containsOnlyKeys("CloudFront-Policy", "CloudFront-Signature", "CloudFront-Key-Pair-Id");
+        for (HttpCookie cookie : cookies.values()) {
+            assertThat(cookie.getDomain()).endsWith("vaiki.test");
+            assertThat(cookie.getPath()).isEqualTo("/movie-1/");
+            // ttl=600, rounded up to the expiry bucket
+            assertThat(cookie.getMaxAge()).isBetween(590L, 600L + 300L);
+            assertThat(cookie.getSecure()).isTrue();
+            assertThat(cookie.isHttpOnly()).isTrue();
+        }
+        assertThat(setCookies).allMatch(header -> header.contains("SameSite=None"));
+        assertThat(cookies.get("CloudFront-Key-Pair-Id").getValue()).isEqualTo(TestKeys.KEY_PAIR_ID);
+
+        String policy = new String(Base64.getDecoder().decode(cookies.get("CloudFront-Policy").getValue()
+                .replace('-', '+').replace('_', '=').replace('~', '/')), StandardCharsets.UTF_8);
+        assertThat(policy).contains("\"Resource\":\"https://" + TestKeys.DOMAIN + "/movie-1/*\"");
+    }
+
+    @Test
+    void cookiesForUnknownMovieOrMissingContentAre404() throws Exception {
+        assertThat(get("/api/movies/no-such-movie/playback-cookies").statusCode()).isEqualTo(404);
+        assertThat(get("/api/movies/movie-2/playback-cookies").statusCode()).isEqualTo(404);
+        assertThat(get("/api/movies/no-such-movie/playback-cookies").headers().allValues("Set-Cookie")).isEmpty();
+    }
+
+    @Test
+    void malformedViewerIdIsRejectedBeforeThePlaybackIsCounted() throws Exception {
+        Counter playbacks = meterRegistry.counter("vaiki.playback.requests", "slug", "movie-0", "delivery", "url");
+        double before = playbacks.count();
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/movies/movie-0/playback-url"))
+                        .header("X-Viewer-Id", "bad id!")
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(400);
+        assertThat(playbacks.count()).isEqualTo(before);
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        return HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,85 @@
+package ee.markh.vaiki_backend.load;
+
+import ee.markh.vaiki_backend.CatalogFixtures;
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import ee.markh.vaiki_backend.dto.ImportResultDto;
+import ee.markh.vaiki_backend.dto.MovieImportRecord;
+import ee.markh.vaiki_backend.entity.Movie;
+import ee.markh.vaiki_backend.repository.MovieRepository;
+import ee.markh.vaiki_backend.service.CatalogImportService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A 100,000-movie JSON Lines import, streamed from a file like the import runner does. Reports the import's
+ * duration, throughput and peak heap (sum of the heap pools' peaks, reset just before the import), so a change that
+ * starts buffering the whole file shows up here. Reports are logged and written to target/load-reports/.
+ */
+@Tag("load")
+class CatalogImportLoadTest extends PostgresIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportLoadTest.class);
+
+    private static final int MOVIES = 100_000;
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Test
+    void reportImportTimeAndHeap() throws Exception {
+        movieRepository.deleteAll();
+        Path reports = Path.of("target", "load-reports");
+        Files.createDirectories(reports);
+        Path input = reports.resolve("catalog-import-input.jsonl");
+        writeJsonl(input);
+
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        ImportResultDto result = catalogImportService.importJsonl(Files.newInputStream(input),
+                CatalogImportService.Mode.UPSERT);
+
+        long peakHeapBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        String report = String.format("catalog import: %,d records in %,d ms (%,.0f records/s), peak heap %,d MiB%n",
+                result.read(), result.elapsedMillis(), result.recordsPerSecond(), peakHeapBytes / (1024 * 1024));
+        log.info("\n{}", report);
+        Files.writeString(reports.resolve("catalog-import.txt"), report);
+        Files.delete(input);
+
+        assertThat(result.written()).isEqualTo(MOVIES);
+        assertThat(result.rejected()).isZero();
+        assertThat(movieRepository.count()).isEqualTo(MOVIES);
+    }
+
+    private void writeJsonl(Path file) throws Exception {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (Movie movie : CatalogFixtures.movies(MOVIES)) {
+                writer.write(jsonMapper.writeValueAsString(MovieImportRecord.from(movie)));
+                writer.newLine();
+            }
+        }
+    }
+}
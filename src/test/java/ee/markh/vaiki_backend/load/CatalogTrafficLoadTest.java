@@ -0,0 +1,133 @@
+package ee.markh.vaiki_backend.load;
+
+import ee.markh.vaiki_backend.CatalogFixtures;
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import ee.markh.vaiki_backend.repository.CategoryRepository;
+import ee.markh.vaiki_backend.repository.MovieRepository;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Premiere-night traffic: a browsing mix of catalog reads plus playback signing, with most viewers starting the
+ * featured movie. Runs against the app on Testcontainers Postgres with the locally generated CloudFront key
+ * (see {@link ee.markh.vaiki_backend.TestKeys}), so signing is real RSA work.
+ * <p>
+ * The report is compared with the baseline in src/test/load-baselines/, recorded on the reference machine and
+ * committed. Only {@code -Dload.update-baseline=true} writes that file; other runs leave the source tree alone and
+ * write their report as a candidate baseline under target/load-reports/ instead.
+ * {@code -Dload.max-regression=0.25} fails the test when an endpoint's throughput or p95/p99 is more than 25 % worse
+ * (or when there is no baseline to compare with).
+ */
+@Tag("load")
+class CatalogTrafficLoadTest extends PostgresIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogTrafficLoadTest.class);
+
+    private static final String LABEL = "catalog-traffic";
+    private static final Path BASELINE = Path.of("src", "test", "load-baselines", LABEL + ".json");
+
+    private static final int MOVIES = 500;
+    private static final int CONCURRENCY = 200;
+    /** Share of playback requests for the featured premiere (movie-0); the rest follow a long tail. */
+    private static final double PREMIERE_SHARE = 0.6;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Test
+    void reportAndCompareWithBaseline() throws Exception {
+        movieRepository.deleteAll();
+        categoryRepository.deleteAll();
+        categoryRepository.saveAll(CatalogFixtures.categories());
+        movieRepository.saveAll(CatalogFixtures.movies(MOVIES));
+        catalogSnapshotService.refresh();
+
+        String base = "http://localhost:" + port;
+        List<LoadGenerator.Target> mix = List.of(
+                new LoadGenerator.Target("GET /api/movies", 3, () -> get(base + "/api/movies")),
+                new LoadGenerator.Target("GET /api/categories", 2, () -> get(base + "/api/categories")),
+                new LoadGenerator.Target("GET /api/movies/featured", 2, () -> get(base + "/api/movies/featured")),
+                new LoadGenerator.Target("GET playback-url", 4, () -> get(
+                        base + "/api/movies/" + playbackSlug() + "/playback-url")));
+
+        LoadGenerator.LoadReport report = LoadGenerator.run(LABEL, mix, CONCURRENCY, Duration.ofSeconds(10), Duration.ofSeconds(30));
+
+        log.info("\n{}", report.format());
+        Path reports = Path.of("target", "load-reports");
+        Files.createDirectories(reports);
+        Files.writeString(reports.resolve(LABEL + ".txt"), report.format());
+        assertThat(report.totalErrors()).isZero();
+
+        Optional<LoadBaseline> baseline = LoadBaseline.read(BASELINE);
+        String maxRegression = System.getProperty("load.max-regression");
+        if (baseline.isEmpty() && maxRegression != null) {
+            throw new AssertionError("No load baseline at " + BASELINE + " to check regressions against; "
+                    + "record one on the reference machine with -Dload.update-baseline=true and commit it");
+        }
+        if (Boolean.getBoolean("load.update-baseline")) {
+            LoadBaseline.of(report).write(BASELINE);
+            log.info("Recorded load baseline {}; commit it to compare later runs against it", BASELINE);
+            return;
+        }
+        Path candidate = reports.resolve(LABEL + "-baseline.json");
+        LoadBaseline.of(report).write(candidate);
+        if (baseline.isEmpty()) {
+            log.warn("No load baseline at {}; this run's candidate is {}, record the reference one with "
+                    + "-Dload.update-baseline=true on the reference machine", BASELINE, candidate);
+            return;
+        }
+
+        String comparison = baseline.get().compare(report);
+        log.info("\n{}", comparison);
+        Files.writeString(reports.resolve(LABEL + "-vs-baseline.txt"), comparison);
+
+        if (maxRegression != null) {
+            assertThat(baseline.get().regressions(report, Double.parseDouble(maxRegression))).isEmpty();
+        }
+    }
+
+    /**
+     * movie-0 (the featured premiere) for {@link #PREMIERE_SHARE} of requests, otherwise a slug skewed towards
+     * the front of the catalog, like a popularity-sorted home page.
+     */
+    private static String playbackSlug() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < PREMIERE_SHARE) {
+            return "movie-0";
+        }
+        return "movie-" + (int) (MOVIES * Math.pow(random.nextDouble(), 3));
+    }
+
+    private static HttpRequest get(String url) {
+        // Browsers always offer compression; catalog responses are served pre-compressed
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Accept-Encoding", "br, gzip")
+                .timeout(Duration.ofSeconds(30))
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+package ee.markh.vaiki_backend.load;
+
+import ee.markh.vaiki_backend.load.LoadGenerator.EndpointStats;
+import ee.markh.vaiki_backend.load.LoadGenerator.LoadReport;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A checked-in load report that later runs are compared against.
+ * <p>
+ * Numbers only mean something on the machine that recorded them, so the file also records the environment and the
+ * comparison says so when it differs. Refresh it with {@code -Dload.update-baseline=true} after an intended change;
+ * other runs write theirs to target/load-reports/ as a candidate.
+ *
+ * @param environment CPU count, JVM and OS of the recording machine
+ */
+public record LoadBaseline(String label, Instant recordedAt, String environment, int concurrency,
+                           long durationSeconds, List<EndpointStats> endpoints) {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    public static LoadBaseline of(LoadReport report) {
+        return new LoadBaseline(report.label(), Instant.now(), currentEnvironment(), report.concurrency(),
+                report.duration().toSeconds(), report.endpoints());
+    }
+
+    public static Optional<LoadBaseline> read(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        return Optional.of(JSON.readValue(Files.readString(file), LoadBaseline.class));
+    }
+
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, JSON.writerWithDefaultPrettyPrinter().writeValueAsString(this) + "\n");
+    }
+
+    /**
+     * Side-by-side table of baseline and current throughput and percentiles, with relative change.
+     */
+    public String compare(LoadReport report) {
+        Map<String, EndpointStats> baseline = byName();
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%s vs. baseline recorded %s%n", report.label(), recordedAt));
+        if (!environment.equals(currentEnvironment())) {
+            out.append(String.format(Locale.ROOT, "Environment differs, numbers are not comparable: baseline %s, now %s%n",
+                    environment, currentEnvironment()));
+        }
+        out.append(String.format(Locale.ROOT, "%-22s %-8s %9s %9s %9s %9s%n",
+                "endpoint", "", "req/s", "p50 ms", "p95 ms", "p99 ms"));
+        for (EndpointStats current : report.endpoints()) {
+            EndpointStats previous = baseline.get(current.name());
+            if (previous == null) {
+                out.append(String.format(Locale.ROOT, "%-22s (not in baseline)%n", current.name()));
+                continue;
+            }
+            out.append(String.format(Locale.ROOT, "%-22s %-8s %9.0f %9.2f %9.2f %9.2f%n", current.name(), "baseline",
+                    previous.throughputPerSecond(), previous.p50Ms(), previous.p95Ms(), previous.p99Ms()));
+            out.append(String.format(Locale.ROOT, "%-22s %-8s %9.0f %9.2f %9.2f %9.2f%n", "", "now",
+                    current.throughputPerSecond(), current.p50Ms(), current.p95Ms(), current.p99Ms()));
+            out.append(String.format(Locale.ROOT, "%-22s %-8s %9s %9s %9s %9s%n", "", "change",
+                    change(previous.throughputPerSecond(), current.throughputPerSecond()),
+                    change(previous.p50Ms(), current.p50Ms()),
+                    change(previous.p95Ms(), current.p95Ms()),
+                    change(previous.p99Ms(), current.p99Ms())));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Endpoints whose throughput dropped, or whose p95/p99 grew, by more than {@code tolerance} (0.25 = 25 %).
+     */
+    public List<String> regressions(LoadReport report, double tolerance) {
+        Map<String, EndpointStats> baseline = byName();
+        List<String> regressions = new ArrayList<>();
+        for (EndpointStats current : report.endpoints()) {
+            EndpointStats previous = baseline.get(current.name());
+            if (previous == null) {
+                continue;
+            }
+            if (current.throughputPerSecond() < previous.throughputPerSecond() * (1 - tolerance)) {
+                regressions.add(current.name() + " req/s " + change(previous.throughputPerSecond(), current.throughputPerSecond()));
+            }
+            if (current.p95Ms() > previous.p95Ms() * (1 + tolerance)) {
+                regressions.add(current.name() + " p95 " + change(previous.p95Ms(), current.p95Ms()));
+            }
+            if (current.p99Ms() > previous.p99Ms() * (1 + tolerance)) {
+                regressions.add(current.name() + " p99 " + change(previous.p99Ms(), current.p99Ms()));
+            }
+        }
+        return regressions;
+    }
+
+    private Map<String, EndpointStats> byName() {
+        return endpoints.stream().collect(Collectors.toMap(EndpointStats::name, Function.identity()));
+    }
+
+    private static String change(double previous, double current) {
+        if (previous == 0) {
+            return "n/a";
+        }
+        return String.format(Locale.ROOT, "%+.0f%%", (current - previous) / previous * 100);
+    }
+
+    private static String currentEnvironment() {
+        return String.format(Locale.ROOT, "%d cpus, Java %s, %s %s",
+                Runtime.getRuntime().availableProcessors(), Runtime.version().feature(),
+                System.getProperty("os.name"), System.getProperty("os.arch"));
+    }
+}
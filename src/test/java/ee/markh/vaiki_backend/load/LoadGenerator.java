@@ -0,0 +1,180 @@
+package ee.markh.vaiki_backend.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Minimal closed-loop HTTP load generator: {@code concurrency} virtual-thread workers each send requests
+ * back-to-back, picking an endpoint from a weighted mix, and record latencies per endpoint.
+ */
+public final class LoadGenerator {
+
+    private LoadGenerator() {
+    }
+
+    /**
+     * An endpoint in the traffic mix. The supplier is called per request so targets can vary (e.g. random slugs).
+     */
+    public record Target(String name, int weight, Supplier<HttpRequest> request) {}
+
+    /**
+     * Latency percentiles (milliseconds) and outcome counts for one endpoint.
+     * {@code rejected} counts 429/503 responses, {@code errors} any other non-2xx/3xx status or I/O failure.
+     */
+    public record EndpointStats(String name, long requests, long rejected, long errors,
+                                double throughputPerSecond, double p50Ms, double p95Ms, double p99Ms) {}
+
+    public record LoadReport(String label, int concurrency, Duration duration, List<EndpointStats> endpoints) {
+
+        public long totalRequests() {
+            return endpoints.stream().mapToLong(EndpointStats::requests).sum();
+        }
+
+        public long totalErrors() {
+            return endpoints.stream().mapToLong(EndpointStats::errors).sum();
+        }
+
+        public String format() {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format(Locale.ROOT, "%s: %d workers, %d s, %d requests (%.0f req/s)%n",
+                    label, concurrency, duration.toSeconds(), totalRequests(),
+                    totalRequests() / (double) duration.toSeconds()));
+            out.append(String.format(Locale.ROOT, "%-22s %9s %9s %7s %7s %9s %9s %9s%n",
+                    "endpoint", "requests", "req/s", "reject", "errors", "p50 ms", "p95 ms", "p99 ms"));
+            for (EndpointStats stats : endpoints) {
+                out.append(String.format(Locale.ROOT, "%-22s %9d %9.0f %7d %7d %9.2f %9.2f %9.2f%n",
+                        stats.name(), stats.requests(), stats.throughputPerSecond(), stats.rejected(), stats.errors(),
+                        stats.p50Ms(), stats.p95Ms(), stats.p99Ms()));
+            }
+            return out.toString();
+        }
+    }
+
+    /**
+     * Runs the mix for {@code warmup} (discarded) and then {@code duration} (measured).
+     */
+    public static LoadReport run(String label, List<Target> mix, int concurrency, Duration warmup, Duration duration)
+            throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        runPhase(client, mix, concurrency, warmup);
+        Map<String, Recorder> recorders = runPhase(client, mix, concurrency, duration);
+
+        List<EndpointStats> stats = new ArrayList<>();
+        for (Target target : mix) {
+            Recorder recorder = recorders.getOrDefault(target.name(), new Recorder());
+            stats.add(recorder.stats(target.name(), duration));
+        }
+        return new LoadReport(label, concurrency, duration, stats);
+    }
+
+    private static Map<String, Recorder> runPhase(HttpClient client, List<Target> mix, int concurrency, Duration duration)
+            throws InterruptedException {
+        int totalWeight = mix.stream().mapToInt(Target::weight).sum();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Map<String, Recorder>> perWorker = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+
+        for (int i = 0; i < concurrency; i++) {
+            Map<String, Recorder> recorders = new HashMap<>();
+            perWorker.add(recorders);
+            workers.add(Thread.ofVirtual().start(() -> {
+                while (running.get()) {
+                    Target target = pick(mix, totalWeight);
+                    Recorder recorder = recorders.computeIfAbsent(target.name(), _ -> new Recorder());
+                    long started = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(target.request().get(), HttpResponse.BodyHandlers.discarding());
+                        recorder.record(System.nanoTime() - started, response.statusCode());
+                    } catch (Exception e) {
+                        recorder.record(System.nanoTime() - started, -1);
+                    }
+                }
+            }));
+        }
+
+        TimeUnit.MILLISECONDS.sleep(duration.toMillis());
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Map<String, Recorder> merged = new LinkedHashMap<>();
+        for (Map<String, Recorder> recorders : perWorker) {
+            recorders.forEach((name, recorder) -> merged.computeIfAbsent(name, _ -> new Recorder()).addAll(recorder));
+        }
+        return merged;
+    }
+
+    private static Target pick(List<Target> mix, int totalWeight) {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Target target : mix) {
+            roll -= target.weight();
+            if (roll < 0) {
+                return target;
+            }
+        }
+        return mix.getLast();
+    }
+
+    /**
+     * Growable array of latencies for one endpoint, owned by a single worker until merged.
+     */
+    private static final class Recorder {
+        private long[] latencies = new long[1024];
+        private int size;
+        private long rejected;
+        private long errors;
+
+        void record(long latencyNanos, int status) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+            if (status == 429 || status == 503) {
+                rejected++;
+            } else if (status < 200 || status >= 400) {
+                errors++;
+            }
+        }
+
+        void addAll(Recorder other) {
+            if (size + other.size > latencies.length) {
+                latencies = Arrays.copyOf(latencies, size + other.size);
+            }
+            System.arraycopy(other.latencies, 0, latencies, size, other.size);
+            size += other.size;
+            rejected += other.rejected;
+            errors += other.errors;
+        }
+
+        EndpointStats stats(String name, Duration duration) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return new EndpointStats(name, size, rejected, errors, size / (double) duration.toSeconds(),
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.clamp(rank, 0, sorted.length - 1)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ee.markh.vaiki_backend.load;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadsLoadTest extends ThreadingModeLoadTest {
+}
@@ -0,0 +1,89 @@
+package ee.markh.vaiki_backend.load;
+
+import ee.markh.vaiki_backend.CatalogFixtures;
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import ee.markh.vaiki_backend.repository.CategoryRepository;
+import ee.markh.vaiki_backend.repository.MovieRepository;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency percentiles under a burst with platform vs. virtual request threads. The connection pool is
+ * deliberately small so that database-backed endpoints hit the repository concurrency limiter.
+ * Reports are logged and written to target/load-reports/.
+ */
+@Tag("load")
+@TestPropertySource(properties = {
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "app.db.max-concurrency=4"
+})
+abstract class ThreadingModeLoadTest extends PostgresIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingModeLoadTest.class);
+
+    private static final int MOVIES = 500;
+    private static final int CONCURRENCY = 400;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Test
+    void reportLatencyPercentiles() throws Exception {
+        movieRepository.deleteAll();
+        categoryRepository.deleteAll();
+        categoryRepository.saveAll(CatalogFixtures.categories());
+        movieRepository.saveAll(CatalogFixtures.movies(MOVIES));
+        catalogSnapshotService.refresh();
+
+        String base = "http://localhost:" + port;
+        List<LoadGenerator.Target> mix = List.of(
+                new LoadGenerator.Target("GET /api/movies", 1, () -> get(base + "/api/movies")),
+                new LoadGenerator.Target("GET /api/home", 2, () -> get(base + "/api/home?perRow=12")),
+                new LoadGenerator.Target("GET /api/movies?limit", 2, () -> get(base + "/api/movies?limit=24")),
+                new LoadGenerator.Target("GET playback-url", 3, () -> get(
+                        base + "/api/movies/movie-" + ThreadLocalRandom.current().nextInt(MOVIES) + "/playback-url")));
+
+        String label = virtualThreads ? "virtual-threads" : "platform-threads";
+        LoadGenerator.LoadReport report = LoadGenerator.run(label, mix, CONCURRENCY, Duration.ofSeconds(5), Duration.ofSeconds(20));
+
+        log.info("\n{}", report.format());
+        Path reports = Path.of("target", "load-reports");
+        Files.createDirectories(reports);
+        Files.writeString(reports.resolve(label + ".txt"), report.format());
+
+        // 503s from the limiter are expected backpressure; anything else is a failure.
+        assertThat(report.totalErrors()).isZero();
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).build();
+    }
+}
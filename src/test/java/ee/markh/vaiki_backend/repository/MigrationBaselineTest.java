@@ -0,0 +1,89 @@
+package ee.markh.vaiki_backend.repository;
+
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A database created by Hibernate before Flyway (only the catalog tables, no history table) is baselined at V1
+ * and must still end up with every later table and index, or ddl-auto=validate stops the app.
+ */
+class MigrationBaselineTest extends PostgresIntegrationTest {
+
+    private static final String SCHEMA = "pre_flyway";
+
+    /** What ddl-auto=update created for the original Movie and Category entities. */
+    private static final String PRE_FLYWAY_TABLES = """
+            CREATE TABLE pre_flyway.movies (
+                id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                slug VARCHAR(255) NOT NULL UNIQUE,
+                title VARCHAR(255) NOT NULL,
+                year INTEGER,
+                description VARCHAR(2000),
+                duration_minutes INTEGER,
+                poster_url VARCHAR(255),
+                backdrop_url VARCHAR(255),
+                director VARCHAR(255),
+                country VARCHAR(255),
+                hls_path VARCHAR(255),
+                featured BOOLEAN NOT NULL,
+                feature_text VARCHAR(255)
+            );
+            CREATE TABLE pre_flyway.movie_categories (
+                movie_id BIGINT NOT NULL REFERENCES pre_flyway.movies (id),
+                category VARCHAR(255)
+            );
+            CREATE TABLE pre_flyway.categories (
+                id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                slug VARCHAR(255) NOT NULL UNIQUE,
+                title VARCHAR(255) NOT NULL,
+                order_index INTEGER NOT NULL,
+                visible BOOLEAN NOT NULL
+            );
+            """;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    void baselinedDatabaseReceivesEveryLaterTableAndIndex() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+        jdbcTemplate.execute(PRE_FLYWAY_TABLES);
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(SCHEMA)
+                .baselineOnMigrate(true)
+                .load()
+                .migrate();
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT table_name FROM information_schema.tables WHERE table_schema = ?", String.class, SCHEMA))
+                .contains("viewing_sessions", "resume_positions", "movie_popularity",
+                        "movie_images", "movie_image_variants");
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = ?", String.class, SCHEMA))
+                .contains("idx_movie_categories_category_movie", "idx_movie_categories_movie",
+                        "idx_viewing_sessions_movie_last_heartbeat", "idx_resume_positions_viewer_updated");
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT column_name FROM information_schema.columns WHERE table_schema = ? AND table_name = ?",
+                String.class, SCHEMA, "movie_categories"))
+                .contains("category_index");
+    }
+}
@@ -0,0 +1,80 @@
+package ee.markh.vaiki_backend.repository;
+
+import ee.markh.vaiki_backend.CatalogFixtures;
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards against N+1 loading of Movie.categories: loading the movie list must cost the same
+ * number of SQL statements no matter how many movies there are.
+ */
+class MovieStatementCountTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${local.server.port}")
+    private int port;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        movieRepository.deleteAll();
+    }
+
+    @Test
+    void catalogLoadStatementCountDoesNotGrowWithMovies() {
+        long withFewMovies = statementsToLoadCatalogOf(5);
+        long withManyMovies = statementsToLoadCatalogOf(200);
+
+        assertThat(withManyMovies).isEqualTo(withFewMovies);
+    }
+
+    @Test
+    void getAllMoviesIssuesNoStatements() throws Exception {
+        movieRepository.saveAll(CatalogFixtures.movies(20));
+        catalogSnapshotService.refresh();
+        statistics.clear();
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/movies")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).contains("movie-19");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    private long statementsToLoadCatalogOf(int movies) {
+        movieRepository.deleteAll();
+        movieRepository.saveAll(CatalogFixtures.movies(movies));
+        statistics.clear();
+
+        catalogSnapshotService.refresh();
+
+        assertThat(catalogSnapshotService.current().movies()).hasSize(movies);
+        return statistics.getPrepareStatementCount();
+    }
+}
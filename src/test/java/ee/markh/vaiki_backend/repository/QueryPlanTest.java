@@ -0,0 +1,126 @@
+package ee.markh.vaiki_backend.repository;
+
+import ee.markh.vaiki_backend.CatalogFixtures;
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the migrations' indexes serve the repository queries they were added for.
+ * <p>
+ * The SQL mirrors what Hibernate generates for each method. Sequential scans are disabled for the session,
+ * so the planner picks an index whenever one can answer the query; a missing or unusable index shows up
+ * as a "Seq Scan" (at disable_cost) or a different index in the plan.
+ */
+class QueryPlanTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        movieRepository.deleteAll();
+        categoryRepository.deleteAll();
+        movieRepository.saveAll(CatalogFixtures.movies(500));
+        categoryRepository.saveAll(CatalogFixtures.categories());
+        jdbcTemplate.execute("ANALYZE movies, movie_categories, categories");
+    }
+
+    @Test
+    void findFirstByFeaturedTrueUsesPartialIndex() {
+        // Entity graph fetch of a collection: Hibernate drops the limit and joins the categories
+        String plan = explain("""
+                select m.id, m.slug, m.title, m.featured, mc.category
+                from movies m
+                left join movie_categories mc on m.id = mc.movie_id
+                where m.featured = true
+                """);
+
+        assertThat(plan).contains("idx_movies_featured").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void findByVisibleTrueOrderByOrderIndexIsIndexOnlyWithoutSort() {
+        String plan = explain("""
+                select c.id, c.order_index, c.slug, c.title, c.visible
+                from categories c
+                where c.visible = true
+                order by c.order_index
+                """);
+
+        assertThat(plan).contains("Index Only Scan using idx_categories_visible_order")
+                .doesNotContain("Sort")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void categoriesByMovieIdsUseMovieIdIndex() {
+        // findCategoriesByMovieIds and the @BatchSize initialization of Movie.categories
+        String plan = explain("""
+                select mc.movie_id, mc.category
+                from movie_categories mc
+                where mc.movie_id in (1, 2, 3, 4, 5)
+                order by mc.movie_id, mc.category_index
+                """);
+
+        assertThat(plan).contains("idx_movie_categories_movie").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void findCardsByCategoryUsesCategoryMovieIndex() {
+        String plan = explain("""
+                select m.id, m.slug, m.title, m.year, m.poster_url
+                from movie_categories mc
+                join movies m on m.id = mc.movie_id
+                where mc.category = 'noir' and mc.movie_id > 0
+                order by mc.movie_id
+                limit 24
+                """);
+
+        assertThat(plan).contains("idx_movie_categories_category_movie").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void findTopCardsPerCategoryStopsAfterPerCategoryRowsOfTheCategoryMovieIndex() {
+        String plan = explain("""
+                select c.slug, top.id, top.slug, top.title, top.year, top.poster_url
+                from categories c
+                cross join lateral (
+                    select m.id, m.slug, m.title, m.year, m.poster_url
+                    from movie_categories mc
+                    join movies m on m.id = mc.movie_id
+                    where mc.category = c.slug
+                    order by mc.movie_id
+                    limit 12
+                ) top
+                where c.slug in ('classics', 'war', 'comedies', 'noir')
+                order by c.slug, top.id
+                """);
+
+        // A limit inside the per-category loop, and no window over every row of the categories
+        assertThat(plan).contains("Nested Loop", "Limit", "idx_movie_categories_category_movie", "uk_categories_slug")
+                .doesNotContain("WindowAgg")
+                .doesNotContain("Seq Scan");
+    }
+
+    private String explain(String sql) {
+        return transactionTemplate.execute(_ -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Writes to the catalog tables with plain SQL, as another instance or an editor would,
+ * and expects the snapshot to pick the change up through NOTIFY well before the scheduled refresh.
+ */
+@TestPropertySource(properties = {
+        "app.catalog.listen-enabled=true",
+        "spring.datasource.hikari.data-source-properties.ApplicationName=" + CatalogChangeListenerTest.APPLICATION_NAME
+})
+class CatalogChangeListenerTest extends PostgresIntegrationTest {
+
+    static final String APPLICATION_NAME = "vaiki-listener-test";
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private CatalogChangeListener catalogChangeListener;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void externalWritesRefreshTheSnapshot() {
+        jdbcTemplate.update("""
+                INSERT INTO movies (slug, title, year, featured)
+                VALUES ('notified-movie', 'Notified Movie', 1931, false)
+                """);
+
+        assertThat(eventually(() -> catalogSnapshotService.current().findMovie("notified-movie").isPresent())).isTrue();
+        assertThat(catalogChangeListener.lastVersion()).isPositive();
+
+        jdbcTemplate.update("UPDATE movies SET title = 'Renamed Movie' WHERE slug = 'notified-movie'");
+
+        assertThat(eventually(() -> catalogSnapshotService.current().findMovie("notified-movie")
+                .map(movie -> movie.title().equals("Renamed Movie"))
+                .orElse(false))).isTrue();
+
+        jdbcTemplate.update("DELETE FROM movies WHERE slug = 'notified-movie'");
+
+        assertThat(eventually(() -> catalogSnapshotService.current().findMovie("notified-movie").isEmpty())).isTrue();
+    }
+
+    @Test
+    void firstListenRefreshesChangesMadeBeforeIt() {
+        // Triggers off for this session: the write sends no notification, like one made before the LISTEN
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET session_replication_role = replica");
+                statement.execute("""
+                        INSERT INTO movies (slug, title, year, featured)
+                        VALUES ('unannounced-movie', 'Unannounced Movie', 1932, false)
+                        """);
+                statement.execute("SET session_replication_role = DEFAULT");
+            }
+            return null;
+        });
+        assertThat(catalogSnapshotService.current().findMovie("unannounced-movie")).isEmpty();
+
+        CatalogChangeListener listener = new CatalogChangeListener(
+                catalogSnapshotService, dataSource, true, Duration.ofMillis(50));
+        try {
+            listener.start();
+            assertThat(eventually(() -> catalogSnapshotService.current().findMovie("unannounced-movie").isPresent())).isTrue();
+        } finally {
+            listener.stop();
+            jdbcTemplate.update("DELETE FROM movies WHERE slug = 'unannounced-movie'");
+        }
+    }
+
+    @Test
+    void listenConnectionUsesThePoolDriverProperties() {
+        assertThat(eventually(() -> jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM pg_stat_activity
+                WHERE application_name = ? AND query = 'LISTEN %s'
+                """.formatted(CatalogChangeListener.CHANNEL), Long.class, APPLICATION_NAME) > 0)).isTrue();
+    }
+
+    private static boolean eventually(BooleanSupplier condition) {
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(5));
+        while (Instant.now().isBefore(deadline)) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return condition.getAsBoolean();
+    }
+}
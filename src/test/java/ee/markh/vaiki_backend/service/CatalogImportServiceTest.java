@@ -0,0 +1,110 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.CatalogFixtures;
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import ee.markh.vaiki_backend.dto.ImportResultDto;
+import ee.markh.vaiki_backend.dto.MovieImportRecord;
+import ee.markh.vaiki_backend.entity.Movie;
+import ee.markh.vaiki_backend.repository.MovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogImportServiceTest extends PostgresIntegrationTest {
+
+    private static final int MOVIES = 5_000;
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @BeforeEach
+    void setUp() {
+        movieRepository.deleteAll();
+    }
+
+    @Test
+    void importsMoviesAndCategoriesInBatches() {
+        ImportResultDto result = catalogImportService.importJsonl(jsonl(CatalogFixtures.movies(MOVIES)), CatalogImportService.Mode.UPSERT);
+
+        assertThat(result.read()).isEqualTo(MOVIES);
+        assertThat(result.written()).isEqualTo(MOVIES);
+        assertThat(result.rejected()).isZero();
+        assertThat(movieRepository.count()).isEqualTo(MOVIES);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM movie_categories", Long.class)).isEqualTo(2L * MOVIES);
+        assertThat(movieRepository.findBySlug("movie-42")).get()
+                .satisfies(movie -> assertThat(movie.getCategories()).containsExactlyInAnyOrder("comedies", "noir"));
+    }
+
+    @Test
+    void skipExistingLeavesStoredMoviesAlone() {
+        catalogImportService.importJsonl(jsonl(CatalogFixtures.movies(10)), CatalogImportService.Mode.UPSERT);
+
+        List<Movie> renamed = CatalogFixtures.movies(12);
+        renamed.forEach(movie -> movie.setTitle("Renamed"));
+        ImportResultDto result = catalogImportService.importJsonl(jsonl(renamed), CatalogImportService.Mode.SKIP_EXISTING);
+
+        assertThat(result.written()).isEqualTo(2);
+        assertThat(result.skipped()).isEqualTo(10);
+        assertThat(movieRepository.findBySlug("movie-0")).get().extracting(Movie::getTitle).isEqualTo("Movie Number 0");
+        assertThat(movieRepository.findBySlug("movie-11")).get().extracting(Movie::getTitle).isEqualTo("Renamed");
+    }
+
+    @Test
+    void upsertReplacesFieldsAndCategories() {
+        catalogImportService.importJsonl(jsonl(CatalogFixtures.movies(3)), CatalogImportService.Mode.UPSERT);
+
+        List<Movie> changed = CatalogFixtures.movies(3);
+        changed.forEach(movie -> {
+            movie.setTitle("Restored " + movie.getSlug());
+            movie.setCategories(List.of("restored"));
+        });
+        catalogImportService.importJsonl(jsonl(changed), CatalogImportService.Mode.UPSERT);
+
+        assertThat(movieRepository.count()).isEqualTo(3);
+        assertThat(movieRepository.findBySlug("movie-1")).get().satisfies(movie -> {
+            assertThat(movie.getTitle()).isEqualTo("Restored movie-1");
+            assertThat(movie.getCategories()).containsExactly("restored");
+        });
+    }
+
+    @Test
+    void rejectsRecordsWithoutSlugOrTitle() {
+        String lines = """
+                {"slug": "valid-movie", "title": "Valid Movie"}
+                {"slug": "", "title": "No Slug"}
+                {"slug": "no-title"}
+                """;
+
+        ImportResultDto result = catalogImportService.importJsonl(
+                new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8)), CatalogImportService.Mode.UPSERT);
+
+        assertThat(result.read()).isEqualTo(3);
+        assertThat(result.written()).isEqualTo(1);
+        assertThat(result.rejected()).isEqualTo(2);
+    }
+
+    private ByteArrayInputStream jsonl(List<Movie> movies) {
+        StringBuilder lines = new StringBuilder();
+        for (Movie movie : movies) {
+            lines.append(jsonMapper.writeValueAsString(MovieImportRecord.from(movie))).append('\n');
+        }
+        return new ByteArrayInputStream(lines.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
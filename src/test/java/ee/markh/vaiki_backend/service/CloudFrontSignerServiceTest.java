@@ -0,0 +1,96 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.TestKeys;
+import ee.markh.vaiki_backend.service.CloudFrontSignerService.SignedCookiesResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.cloudfront.CloudFrontUtilities;
+import software.amazon.awssdk.services.cloudfront.model.CannedSignerRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CloudFrontSignerServiceTest {
+
+    @Test
+    void keyIsNotReadUntilFirstUse() {
+        CloudFrontSignerService signer = signer(
+                new CloudFrontKeyRing(TestKeys.KEY_PAIR_ID, "/does/not/exist.pem", "", "", new SimpleMeterRegistry()),
+                new SimpleMeterRegistry());
+
+        assertThatThrownBy(signer::warmUp)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not readable");
+    }
+
+    @Test
+    void warmUpDoesNotRecordSigningTime() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CloudFrontSignerService signer = signer(testKeyRing(), meterRegistry);
+
+        signer.warmUp();
+        signer.signUrl("/metropolis/master.m3u8", Instant.now().plusSeconds(600));
+
+        assertThat(meterRegistry.get("vaiki.cloudfront.signing").tag("type", "url").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void cannedUrlsMatchAwsSdk() throws Exception {
+        Instant expiresAt = Instant.ofEpochSecond(2_000_000_000L);
+        String expected = CloudFrontUtilities.create().getSignedUrlWithCannedPolicy(CannedSignerRequest.builder()
+                .resourceUrl("https://" + TestKeys.DOMAIN + "/metropolis/master.m3u8")
+                .privateKey(CloudFrontKeyRing.SigningKey.parsePrivateKey(TestKeys.privateKeyPem()))
+                .keyPairId(TestKeys.KEY_PAIR_ID)
+                .expirationDate(expiresAt)
+                .build()).url();
+
+        String url = signer(testKeyRing(), new SimpleMeterRegistry()).signUrl("/metropolis/master.m3u8", expiresAt).url();
+
+        assertThat(url).isEqualTo(expected);
+    }
+
+    @Test
+    void cookiePolicySignatureVerifies() throws Exception {
+        Instant expiresAt = Instant.ofEpochSecond(2_000_000_000L);
+        SignedCookiesResult result = signer(testKeyRing(), new SimpleMeterRegistry())
+                .getSignedCookies("/metropolis/*", expiresAt);
+
+        byte[] policy = fromUrlSafeBase64(result.cookies().get("CloudFront-Policy"));
+        assertThat(new String(policy, StandardCharsets.UTF_8))
+                .contains("\"Resource\":\"https://" + TestKeys.DOMAIN + "/metropolis/*\"")
+                .contains("\"AWS:EpochTime\":2000000000");
+        assertThat(result.cookies().get("CloudFront-Key-Pair-Id")).isEqualTo(TestKeys.KEY_PAIR_ID);
+
+        Signature verifier = Signature.getInstance("SHA1withRSA");
+        verifier.initVerify(testPublicKey());
+        verifier.update(policy);
+        assertThat(verifier.verify(fromUrlSafeBase64(result.cookies().get("CloudFront-Signature")))).isTrue();
+    }
+
+    private static CloudFrontSignerService signer(CloudFrontKeyRing keyRing, SimpleMeterRegistry meterRegistry) {
+        return new CloudFrontSignerService(keyRing, TestKeys.DOMAIN, 3600, meterRegistry);
+    }
+
+    private static CloudFrontKeyRing testKeyRing() {
+        return new CloudFrontKeyRing(TestKeys.KEY_PAIR_ID, "", TestKeys.privateKeyPem(), "", new SimpleMeterRegistry());
+    }
+
+    private static byte[] fromUrlSafeBase64(String value) {
+        return Base64.getDecoder().decode(value.replace('-', '+').replace('_', '=').replace('~', '/'));
+    }
+
+    private static PublicKey testPublicKey() throws Exception {
+        RSAPrivateCrtKey privateKey = (RSAPrivateCrtKey) CloudFrontKeyRing.SigningKey.parsePrivateKey(TestKeys.privateKeyPem());
+        return KeyFactory.getInstance("RSA")
+                .generatePublic(new RSAPublicKeySpec(privateKey.getModulus(), privateKey.getPublicExponent()));
+    }
+}
@@ -0,0 +1,105 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import ee.markh.vaiki_backend.dto.HeartbeatRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeartbeatBufferTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private HeartbeatBuffer heartbeatBuffer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        heartbeatBuffer.flush();
+        jdbcTemplate.update("DELETE FROM viewing_sessions");
+    }
+
+    @AfterEach
+    void dropFailureTrigger() {
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS fail_session_c ON viewing_sessions");
+        jdbcTemplate.execute("DROP FUNCTION IF EXISTS fail_session_c()");
+    }
+
+    @Test
+    void collapsesHeartbeatsPerSessionBeforeWriting() {
+        heartbeatBuffer.record(new HeartbeatRequest("movie-1", "session-a", 10));
+        heartbeatBuffer.record(new HeartbeatRequest("movie-1", "session-a", 20));
+        heartbeatBuffer.record(new HeartbeatRequest("movie-1", "session-a", 30));
+        heartbeatBuffer.record(new HeartbeatRequest("movie-2", "session-b", 5));
+
+        assertThat(heartbeatBuffer.bufferedSessions()).isEqualTo(2);
+        assertThat(heartbeatBuffer.flush()).isEqualTo(2);
+        assertThat(heartbeatBuffer.bufferedSessions()).isZero();
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT movie_slug, position_seconds, heartbeat_count FROM viewing_sessions WHERE session_id = 'session-a'");
+        assertThat(row).containsEntry("movie_slug", "movie-1")
+                .containsEntry("position_seconds", 30)
+                .containsEntry("heartbeat_count", 3L);
+    }
+
+    @Test
+    void laterFlushesUpdateTheExistingSession() {
+        heartbeatBuffer.record(new HeartbeatRequest("movie-1", "session-c", 10));
+        heartbeatBuffer.flush();
+        heartbeatBuffer.record(new HeartbeatRequest("movie-1", "session-c", 70));
+        heartbeatBuffer.flush();
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT position_seconds, heartbeat_count FROM viewing_sessions WHERE session_id = 'session-c'");
+        assertThat(row).containsEntry("position_seconds", 70)
+                .containsEntry("heartbeat_count", 2L);
+    }
+
+    @Test
+    void failureInLaterSubBatchDoesNotCountEarlierOnesTwice() {
+        // Sub-batches of two; sessions are written in id order, so session-c is alone in the second one
+        HeartbeatBuffer buffer = new HeartbeatBuffer(jdbcTemplate, transactionTemplate, new SimpleMeterRegistry(), 1000, 2);
+        buffer.record(new HeartbeatRequest("movie-1", "session-a", 10));
+        buffer.record(new HeartbeatRequest("movie-1", "session-a", 20));
+        buffer.record(new HeartbeatRequest("movie-1", "session-b", 10));
+        buffer.record(new HeartbeatRequest("movie-1", "session-c", 10));
+        jdbcTemplate.execute("""
+                CREATE FUNCTION fail_session_c() RETURNS trigger AS $$
+                BEGIN
+                    IF NEW.session_id = 'session-c' THEN
+                        RAISE EXCEPTION 'simulated failure';
+                    END IF;
+                    RETURN NEW;
+                END;
+                $$ LANGUAGE plpgsql
+                """);
+        jdbcTemplate.execute("""
+                CREATE TRIGGER fail_session_c BEFORE INSERT ON viewing_sessions
+                    FOR EACH ROW EXECUTE FUNCTION fail_session_c()
+                """);
+
+        assertThat(buffer.flush()).isZero();
+        assertThat(buffer.bufferedSessions()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM viewing_sessions", Long.class)).isZero();
+
+        dropFailureTrigger();
+        assertThat(buffer.flush()).isEqualTo(3);
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT heartbeat_count FROM viewing_sessions WHERE session_id = 'session-a'", Long.class))
+                .isEqualTo(2);
+    }
+}
@@ -0,0 +1,118 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.TestKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the proxy against a directory standing in for the origin bucket.
+ */
+class HlsManifestProxyTest {
+
+    @TempDir
+    Path origin;
+
+    private HlsManifestProxy proxy;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.createDirectories(origin.resolve("metropolis/720p"));
+        Files.writeString(origin.resolve("metropolis/master.m3u8"), """
+                #EXTM3U
+                #EXT-X-STREAM-INF:BANDWIDTH=1280000
+                720p/index.m3u8
+                """);
+        Files.writeString(origin.resolve("metropolis/720p/index.m3u8"), """
+                #EXTM3U
+                #EXTINF:6.0,
+                segment-000.ts
+                #EXTINF:6.0,
+                segment-001.ts
+                """);
+
+        CloudFrontSignerService signer = new CloudFrontSignerService(
+                new CloudFrontKeyRing(TestKeys.KEY_PAIR_ID, "", TestKeys.privateKeyPem(), "", new SimpleMeterRegistry()),
+                TestKeys.DOMAIN, 3600, new SimpleMeterRegistry());
+        SignedUrlCache signedUrlCache = new SignedUrlCache(signer, new SimpleMeterRegistry(), 300, 100, 60, 14400);
+        proxy = new HlsManifestProxy(signedUrlCache, new SimpleMeterRegistry(), origin.toUri().toString(),
+                1024 * 1024, Duration.ofMinutes(10), Duration.ofHours(1));
+    }
+
+    @Test
+    void masterPointsVariantsBackAtProxy() throws Exception {
+        String master = serve("/master.m3u8");
+
+        assertThat(master).contains("\n" + HlsManifestProxy.PROXY_PATH + "metropolis/720p/index.m3u8\n");
+    }
+
+    @Test
+    void variantSegmentsShareOneDirectorySignature() throws Exception {
+        String[] lines = serve("/720p/index.m3u8").split("\n");
+
+        assertThat(lines[2]).startsWith("https://" + TestKeys.DOMAIN + "/metropolis/720p/segment-000.ts?Policy=")
+                .contains("&Signature=").endsWith("&Key-Pair-Id=" + TestKeys.KEY_PAIR_ID);
+        assertThat(lines[4].substring(lines[4].indexOf('?')))
+                .isEqualTo(lines[2].substring(lines[2].indexOf('?')));
+    }
+
+    @Test
+    void segmentSignatureOutlivesTheMovie() throws Exception {
+        Instant before = Instant.now();
+        String[] lines = serve("/720p/index.m3u8", 150).split("\n");
+
+        // 150 min film + 1 h margin, well past the 3600 s default TTL
+        assertThat(policyExpiry(lines[2])).isAfterOrEqualTo(before.plus(Duration.ofMinutes(150 + 60)));
+    }
+
+    @Test
+    void segmentSignatureIsCappedAtMaxTtl() throws Exception {
+        Instant before = Instant.now();
+        String[] lines = serve("/720p/index.m3u8", 600).split("\n");
+
+        assertThat(policyExpiry(lines[2]))
+                .isAfterOrEqualTo(before.plusSeconds(14400))
+                .isBefore(before.plusSeconds(14400 + 300 + 1));
+    }
+
+    @Test
+    void refusesMissingAndOutsidePlaylists() {
+        assertThat(proxy.manifest("metropolis", "/metropolis/master.m3u8", null, "/1080p/index.m3u8")).isEmpty();
+        assertThat(proxy.manifest("metropolis", "/metropolis/master.m3u8", null, "/../other/master.m3u8")).isEmpty();
+        assertThat(proxy.manifest("metropolis", "/metropolis/master.m3u8", null, "/720p/segment-000.ts")).isEmpty();
+    }
+
+    private String serve(String path) throws Exception {
+        return serve(path, null);
+    }
+
+    private String serve(String path, Integer durationMinutes) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        proxy.manifest("metropolis", "/metropolis/master.m3u8", durationMinutes, path).orElseThrow().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /** The DateLessThan of the custom policy carried by a signed segment URL. */
+    private static Instant policyExpiry(String signedUrl) {
+        Matcher policyParam = Pattern.compile("[?&]Policy=([^&]+)").matcher(signedUrl);
+        assertThat(policyParam.find()).isTrue();
+        String policy = new String(Base64.getDecoder().decode(policyParam.group(1)
+                .replace('-', '+').replace('_', '=').replace('~', '/')), StandardCharsets.UTF_8);
+        Matcher epoch = Pattern.compile("\"AWS:EpochTime\"\\s*:\\s*(\\d+)").matcher(policy);
+        assertThat(epoch.find()).isTrue();
+        return Instant.ofEpochSecond(Long.parseLong(epoch.group(1)));
+    }
+}
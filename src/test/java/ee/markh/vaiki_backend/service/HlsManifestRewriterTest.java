@@ -0,0 +1,77 @@
+package ee.markh.vaiki_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HlsManifestRewriterTest {
+
+    private final HlsManifestRewriter rewriter = new HlsManifestRewriter(
+            playlist -> "proxy:" + playlist,
+            media -> "signed:" + media);
+
+    @Test
+    void rewritesVariantAndRenditionPlaylists() throws Exception {
+        String master = """
+                #EXTM3U
+                #EXT-X-MEDIA:TYPE=AUDIO,GROUP-ID="aud",NAME="English",URI="audio/en/index.m3u8"
+
+                #EXT-X-STREAM-INF:BANDWIDTH=1280000,RESOLUTION=1280x720,AUDIO="aud"
+                720p/index.m3u8
+                #EXT-X-STREAM-INF:BANDWIDTH=640000
+                /metropolis/360p/index.m3u8
+                """;
+
+        assertThat(rewrite(master, "/metropolis/master.m3u8")).isEqualTo("""
+                #EXTM3U
+                #EXT-X-MEDIA:TYPE=AUDIO,GROUP-ID="aud",NAME="English",URI="proxy:/metropolis/audio/en/index.m3u8"
+
+                #EXT-X-STREAM-INF:BANDWIDTH=1280000,RESOLUTION=1280x720,AUDIO="aud"
+                proxy:/metropolis/720p/index.m3u8
+                #EXT-X-STREAM-INF:BANDWIDTH=640000
+                proxy:/metropolis/360p/index.m3u8
+                """);
+    }
+
+    @Test
+    void rewritesSegmentsInitAndKeyRelativeToVariant() throws Exception {
+        String variant = """
+                #EXTM3U
+                #EXT-X-TARGETDURATION:6
+                #EXT-X-MAP:URI="init.mp4"
+                #EXT-X-KEY:METHOD=AES-128,URI="../keys/key.bin",IV=0x1
+                #EXTINF:6.0,
+                segment-000.m4s
+                #EXTINF:6.0,
+                https://cdn.example.com/ad.ts
+                #EXT-X-ENDLIST
+                """;
+
+        assertThat(rewrite(variant, "/metropolis/720p/index.m3u8")).isEqualTo("""
+                #EXTM3U
+                #EXT-X-TARGETDURATION:6
+                #EXT-X-MAP:URI="signed:/metropolis/720p/init.mp4"
+                #EXT-X-KEY:METHOD=AES-128,URI="signed:/metropolis/keys/key.bin",IV=0x1
+                #EXTINF:6.0,
+                signed:/metropolis/720p/segment-000.m4s
+                #EXTINF:6.0,
+                https://cdn.example.com/ad.ts
+                #EXT-X-ENDLIST
+                """);
+    }
+
+    @Test
+    void normalizesLineEndings() throws Exception {
+        assertThat(rewrite("#EXTM3U\r\nsegment.ts\r\n", "/a/index.m3u8")).isEqualTo("#EXTM3U\nsigned:/a/segment.ts\n");
+    }
+
+    private String rewrite(String manifest, String manifestPath) throws Exception {
+        StringWriter out = new StringWriter();
+        rewriter.rewrite(new BufferedReader(new StringReader(manifest)), out, manifestPath);
+        return out.toString();
+    }
+}
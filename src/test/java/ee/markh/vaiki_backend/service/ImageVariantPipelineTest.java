@@ -0,0 +1,107 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.service.MovieImageStore.ProcessedImage;
+import ee.markh.vaiki_backend.service.MovieImageStore.Variant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Variant generation against a directory of generated originals; no database.
+ */
+class ImageVariantPipelineTest {
+
+    @TempDir
+    Path source;
+
+    @TempDir
+    Path output;
+
+    private final ImageVariantPipeline pipeline =
+            new ImageVariantPipeline(null, List.of(500, 185, 342), List.of(300, 780), 0.8f, 100, 1);
+
+    @Test
+    void writesEveryWidthUpToTheOriginal() throws Exception {
+        Path original = writeOriginal("metropolis", "poster.png", 400, 600);
+
+        ProcessedImage image = pipeline.process(original, output);
+
+        assertThat(image.movieSlug()).isEqualTo("metropolis");
+        assertThat(image.kind()).isEqualTo(MovieImageStore.POSTER);
+        assertThat(image.width()).isEqualTo(400);
+        assertThat(image.height()).isEqualTo(600);
+        assertThat(image.variants()).extracting(Variant::width).containsExactly(185, 342);
+        assertThat(image.variants()).extracting(Variant::path)
+                .containsExactly("/metropolis/poster-185.jpg", "/metropolis/poster-342.jpg");
+
+        BufferedImage written = ImageIO.read(output.resolve("metropolis/poster-342.jpg").toFile());
+        assertThat(written.getWidth()).isEqualTo(342);
+        assertThat(written.getHeight()).isEqualTo(513);
+        try (var files = Files.list(output.resolve("metropolis"))) {
+            assertThat(files.map(Path::getFileName).map(Path::toString)).noneMatch(name -> name.endsWith(".tmp"));
+        }
+    }
+
+    @Test
+    void narrowOriginalGetsOneVariantAtItsOwnWidth() {
+        assertThat(pipeline.widthsFor(MovieImageStore.BACKDROP, 250)).containsExactly(250);
+        assertThat(pipeline.widthsFor(MovieImageStore.BACKDROP, 1920)).containsExactly(300, 780);
+    }
+
+    @Test
+    void blurhashEncodesComponentCountAndAverageColour() throws Exception {
+        Path portrait = writeOriginal("nosferatu", "poster.png", 200, 300);
+        Path landscape = writeOriginal("nosferatu", "backdrop.jpg", 640, 360);
+
+        String portraitHash = pipeline.process(portrait, output).blurhash();
+        String landscapeHash = pipeline.process(landscape, output).blurhash();
+
+        // Size flag + max AC + 4-char DC + 2 chars per AC component
+        assertThat(portraitHash).hasSize(1 + 1 + 4 + 2 * 15).startsWith("U");
+        assertThat(landscapeHash).hasSize(1 + 1 + 4 + 2 * 11).startsWith("L");
+    }
+
+    @Test
+    void findsOriginalsPerSlugInOrder() throws Exception {
+        writeOriginal("b-movie", "poster.jpeg", 10, 15);
+        writeOriginal("a-movie", "backdrop.png", 16, 9);
+        writeOriginal("a-movie", "poster.png", 10, 15);
+        Files.writeString(source.resolve("a-movie").resolve("notes.txt"), "ignored");
+
+        assertThat(pipeline.findOriginals(source)).containsExactly(
+                source.resolve("a-movie/backdrop.png"),
+                source.resolve("a-movie/poster.png"),
+                source.resolve("b-movie/poster.jpeg"));
+    }
+
+    private Path writeOriginal(String slug, String name, int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setPaint(new GradientPaint(0, 0, Color.DARK_GRAY, width, height, Color.ORANGE));
+            graphics.fillRect(0, 0, width, height);
+        } finally {
+            graphics.dispose();
+        }
+        Path file = Files.createDirectories(source.resolve(slug)).resolve(name);
+        String format = name.endsWith(".png") ? "png" : "jpeg";
+        ImageIO.write(format.equals("png") ? image : rgb(image), format, file.toFile());
+        return file;
+    }
+
+    private static BufferedImage rgb(BufferedImage image) {
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        rgb.getGraphics().drawImage(image, 0, 0, null);
+        return rgb;
+    }
+}
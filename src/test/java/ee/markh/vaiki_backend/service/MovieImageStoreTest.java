@@ -0,0 +1,91 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.CatalogFixtures;
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import ee.markh.vaiki_backend.dto.ImageDto;
+import ee.markh.vaiki_backend.dto.MovieDto;
+import ee.markh.vaiki_backend.repository.MovieRepository;
+import ee.markh.vaiki_backend.service.MovieImageStore.ProcessedImage;
+import ee.markh.vaiki_backend.service.MovieImageStore.Variant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MovieImageStoreTest extends PostgresIntegrationTest {
+
+    private static final String BASE_URL = "https://d111111abcdef8.cloudfront.net";
+
+    @Autowired
+    private MovieImageStore movieImageStore;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM movie_image_variants");
+        jdbcTemplate.update("DELETE FROM movie_images");
+        movieRepository.deleteAll();
+    }
+
+    @Test
+    void loadsSrcsetOrderedByWidth() {
+        movieImageStore.saveAll(List.of(poster("movie-0", 342, 185)));
+
+        ImageDto poster = movieImageStore.loadAll().get("movie-0").get(MovieImageStore.POSTER);
+
+        assertThat(poster.url()).isEqualTo(BASE_URL + "/movie-0/poster-342.jpg");
+        assertThat(poster.srcset()).isEqualTo(
+                BASE_URL + "/movie-0/poster-185.jpg 185w, " + BASE_URL + "/movie-0/poster-342.jpg 342w");
+        assertThat(poster.width()).isEqualTo(400);
+        assertThat(poster.height()).isEqualTo(600);
+        assertThat(poster.blurhash()).isEqualTo("UeI|vIIua#oe0noLjtazs.jtfQfQWXfQfQfQ");
+    }
+
+    @Test
+    void reprocessingReplacesVariants() {
+        movieImageStore.saveAll(List.of(poster("movie-0", 185, 342, 500)));
+        movieImageStore.saveAll(List.of(poster("movie-0", 185)));
+
+        ImageDto poster = movieImageStore.loadAll().get("movie-0").get(MovieImageStore.POSTER);
+
+        assertThat(poster.srcset()).isEqualTo(BASE_URL + "/movie-0/poster-185.jpg 185w");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM movie_image_variants", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void snapshotCarriesImagesOnlyForProcessedMovies() {
+        movieRepository.saveAll(CatalogFixtures.movies(2));
+        movieImageStore.saveAll(List.of(poster("movie-0", 185, 342)));
+
+        catalogSnapshotService.refresh();
+
+        MovieDto processed = catalogSnapshotService.current().findMovie("movie-0").orElseThrow();
+        MovieDto unprocessed = catalogSnapshotService.current().findMovie("movie-1").orElseThrow();
+        assertThat(processed.poster().url()).endsWith("/movie-0/poster-342.jpg");
+        assertThat(processed.backdrop()).isNull();
+        assertThat(unprocessed.poster()).isNull();
+        // The original URL stays for clients that do not know about variants
+        assertThat(processed.posterUrl()).endsWith("/movie-0/poster.jpg");
+    }
+
+    private static ProcessedImage poster(String slug, int... widths) {
+        List<Variant> variants = Arrays.stream(widths)
+                .mapToObj(width -> new Variant("jpeg", width, width * 3 / 2, "/" + slug + "/poster-" + width + ".jpg"))
+                .toList();
+        return new ProcessedImage(slug, MovieImageStore.POSTER, 400, 600,
+                "UeI|vIIua#oe0noLjtazs.jtfQfQWXfQfQfQ", variants);
+    }
+}
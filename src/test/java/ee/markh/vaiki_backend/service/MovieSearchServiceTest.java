@@ -0,0 +1,78 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.dto.CategoryDto;
+import ee.markh.vaiki_backend.dto.MovieDto;
+import ee.markh.vaiki_backend.service.CatalogSnapshotService.CatalogSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MovieSearchServiceTest {
+
+    private MovieSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        List<MovieDto> movies = List.of(
+                movie("kevade-1969", "Kevade", "Arvo Kruusement", "Eesti", "Lugu Paunvere koolipoistest.", List.of("classics")),
+                movie("charade-1963", "Charade", "Stanley Donen", "United States",
+                        "A widow is pursued by several men who want her late husband's fortune.", List.of("classics", "comedies")),
+                movie("his-girl-friday", "His Girl Friday", "Howard Hawks", "United States",
+                        "A fast-talking reporter and her ex-husband mix love and news.", List.of("comedies")),
+                movie("viimne-reliikvia-1969", "Viimne reliikvia", "Grigori Kromanov", "Eesti",
+                        "Seiklusfilm Õnne ja vabaduse otsingutest.", List.of("classics")),
+                movie("the-comedians-1967", "The Comedians", "Peter Glenville", "United Kingdom",
+                        "Strangers meet in Haiti under a dictatorship.", List.of()));
+        List<CategoryDto> categories = List.of(
+                new CategoryDto("classics", "Classics", 0),
+                new CategoryDto("comedies", "Comedies", 1));
+
+        searchService = new MovieSearchService(null);
+        searchService.onCatalogRefreshed(new CatalogRefreshedEvent(new CatalogSnapshot(
+                movies, categories, Map.of(), Map.of(), null, Instant.now(), null, null, null, new ConcurrentHashMap<>())));
+    }
+
+    @Test
+    void ignoresDiacritics() {
+        assertThat(slugs("onne")).containsExactly("viimne-reliikvia-1969");
+    }
+
+    @Test
+    void matchesPrefixesForTypeAhead() {
+        assertThat(slugs("his gi")).containsExactly("his-girl-friday");
+    }
+
+    @Test
+    void toleratesTypos() {
+        assertThat(slugs("charsde")).containsExactly("charade-1963");
+    }
+
+    @Test
+    void toleratesMissingAndExtraLetters() {
+        assertThat(slugs("charde")).containsExactly("charade-1963");
+        assertThat(slugs("charrade")).containsExactly("charade-1963");
+    }
+
+    @Test
+    void ranksTitleMatchesAboveCategoryMatches() {
+        // "comed" is a title prefix of The Comedians but only a category prefix ("Comedies") of the others,
+        // which tie and fall back to title order
+        assertThat(slugs("comed")).containsExactly("the-comedians-1967", "charade-1963", "his-girl-friday");
+        assertThat(slugs("kevade")).containsExactly("kevade-1969");
+    }
+
+    private List<String> slugs(String query) {
+        return searchService.search(query, 10).stream().map(MovieDto::slug).toList();
+    }
+
+    private static MovieDto movie(String slug, String title, String director, String country,
+                                  String description, List<String> categories) {
+        return new MovieDto(slug, title, 1960, description, 90, null, null, categories, director, country, false, null, null, null);
+    }
+}
@@ -0,0 +1,105 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import ee.markh.vaiki_backend.service.PopularityService.RankedMovie;
+import ee.markh.vaiki_backend.service.PopularityService.Window;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Several instances persisting into the shared movie_popularity table, as they do behind the load balancer.
+ */
+class PopularityPersistenceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM movie_popularity");
+        now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    @Test
+    void instancesAddUpInsteadOfOverwritingEachOther() {
+        PopularityService a = instance();
+        PopularityService b = instance();
+        record(a, "metropolis", 3);
+        record(b, "metropolis", 2);
+
+        a.persist(now);
+        b.persist(now);
+        // Nothing new since the last persist, so nothing is added again
+        a.persist(now);
+
+        assertThat(stored("score_24h", "metropolis")).isCloseTo(5.0, within(1e-9));
+
+        PopularityService restarted = instance();
+        restarted.load(now);
+        assertThat(restarted.top(Window.DAY)).extracting(RankedMovie::slug).containsExactly("metropolis");
+        assertThat(restarted.top(Window.DAY).getFirst().score()).isCloseTo(5.0, within(1e-9));
+    }
+
+    @Test
+    void mergeDecaysTheStoredScoreToTheNewerTimestamp() {
+        PopularityService a = instance();
+        PopularityService b = instance();
+        record(a, "nosferatu", 10);
+        a.persist(now);
+
+        record(b, "nosferatu", 1);
+        b.persist(now.plus(Duration.ofHours(1)));
+
+        assertThat(stored("score_1h", "nosferatu")).isCloseTo(10 * Math.exp(-1) + 1, within(1e-6));
+        assertThat(stored("score_24h", "nosferatu")).isCloseTo(10 * Math.exp(-1.0 / 24) + 1, within(1e-6));
+    }
+
+    @Test
+    void failedPersistKeepsItsCountsForTheNextOne() {
+        PopularityService a = instance();
+        record(a, "charade", 4);
+
+        jdbcTemplate.execute("ALTER TABLE movie_popularity RENAME TO movie_popularity_offline");
+        try {
+            a.persist(now);
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE movie_popularity_offline RENAME TO movie_popularity");
+        }
+        a.persist(now);
+        a.persist(now);
+
+        assertThat(stored("score_24h", "charade")).isCloseTo(4.0, within(1e-9));
+    }
+
+    private PopularityService instance() {
+        PopularityService instance = new PopularityService(jdbcTemplate, transactionTemplate, 10);
+        instance.tick(now);
+        return instance;
+    }
+
+    private static void record(PopularityService instance, String slug, int times) {
+        for (int i = 0; i < times; i++) {
+            instance.record(slug);
+        }
+    }
+
+    private double stored(String column, String slug) {
+        return jdbcTemplate.queryForObject(
+                "SELECT " + column + " FROM movie_popularity WHERE movie_slug = ?", Double.class, slug);
+    }
+}
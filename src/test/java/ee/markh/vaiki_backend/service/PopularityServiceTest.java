@@ -0,0 +1,81 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.service.PopularityService.RankedMovie;
+import ee.markh.vaiki_backend.service.PopularityService.Window;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PopularityServiceTest {
+
+    private PopularityService popularityService;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        popularityService = new PopularityService(new JdbcTemplate(), new TransactionTemplate(), 2);
+        now = Instant.now();
+        popularityService.tick(now);
+    }
+
+    @Test
+    void ranksByRequestCountAndKeepsTopK() {
+        record("metropolis", 5);
+        record("nosferatu", 3);
+        record("charade", 1);
+
+        popularityService.tick(now);
+
+        assertThat(popularityService.top(Window.DAY)).extracting(RankedMovie::slug)
+                .containsExactly("metropolis", "nosferatu");
+        assertThat(popularityService.top(Window.DAY).getFirst().score()).isEqualTo(5.0);
+    }
+
+    @Test
+    void shorterWindowsForgetFaster() {
+        record("metropolis", 10);
+        popularityService.tick(now);
+        record("nosferatu", 4);
+
+        popularityService.tick(now.plus(Duration.ofHours(3)));
+
+        // After 3 hours the old burst is worth 10 * e^-3 ≈ 0.5 in the hourly window but still ≈ 8.8 over 24h.
+        assertThat(popularityService.top(Window.HOUR)).extracting(RankedMovie::slug)
+                .containsExactly("nosferatu", "metropolis");
+        assertThat(popularityService.top(Window.DAY)).extracting(RankedMovie::slug)
+                .containsExactly("metropolis", "nosferatu");
+        assertThat(popularityService.top(Window.DAY).getFirst().score()).isCloseTo(10 * Math.exp(-3.0 / 24), within(1e-6));
+    }
+
+    @Test
+    void dropsMoviesWhoseScoresHaveDecayedAway() {
+        record("metropolis", 1);
+        popularityService.tick(now);
+
+        popularityService.tick(now.plus(Duration.ofDays(60)));
+
+        assertThat(popularityService.top(Window.WEEK)).isEmpty();
+    }
+
+    @Test
+    void windowLabelsMapToWindowsAndAnythingElseToEmpty() {
+        assertThat(Window.fromLabel("1h")).contains(Window.HOUR);
+        assertThat(Window.fromLabel("24h")).contains(Window.DAY);
+        assertThat(Window.fromLabel("7d")).contains(Window.WEEK);
+        assertThat(Window.fromLabel("30d")).isEmpty();
+        assertThat(Window.fromLabel(null)).isEmpty();
+    }
+
+    private void record(String slug, int times) {
+        for (int i = 0; i < times; i++) {
+            popularityService.record(slug);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.PostgresIntegrationTest;
+import ee.markh.vaiki_backend.exception.RetryLaterException;
+import ee.markh.vaiki_backend.service.ResumePositionStore.Position;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResumePositionStoreTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private ResumePositionStore resumePositionStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        resumePositionStore.flush();
+        jdbcTemplate.update("DELETE FROM resume_positions");
+    }
+
+    @Test
+    void recordedPositionsAreVisibleBeforeAndAfterFlush() {
+        resumePositionStore.record("viewer-record-1", "movie-1", 120);
+        resumePositionStore.record("viewer-record-1", "movie-1", 180);
+
+        assertThat(resumePositionStore.peek("viewer-record-1", "movie-1"))
+                .map(Position::positionSeconds).contains(180);
+
+        assertThat(resumePositionStore.flush()).isEqualTo(1);
+        Integer stored = jdbcTemplate.queryForObject(
+                "SELECT position_seconds FROM resume_positions WHERE viewer_id = 'viewer-record-1' AND movie_slug = 'movie-1'",
+                Integer.class);
+        assertThat(stored).isEqualTo(180);
+    }
+
+    @Test
+    void loadsStoredPositionsInTheBackground() throws Exception {
+        jdbcTemplate.update("""
+                INSERT INTO resume_positions (viewer_id, movie_slug, position_seconds, updated_at)
+                VALUES ('viewer-stored-1', 'movie-1', 600, now() - interval '1 day'),
+                       ('viewer-stored-1', 'movie-2', 900, now())
+                """);
+
+        List<Map.Entry<String, Position>> recent = resumePositionStore.recent("viewer-stored-1").get(5, TimeUnit.SECONDS);
+
+        assertThat(recent).extracting(Map.Entry::getKey).containsExactly("movie-2", "movie-1");
+        assertThat(resumePositionStore.peek("viewer-stored-1", "movie-1"))
+                .map(Position::positionSeconds).contains(600);
+    }
+
+    @Test
+    void fullBufferRejectsNewPositionsButStillTakesUpdatesToPendingOnes() {
+        ResumePositionStore store = new ResumePositionStore(jdbcTemplate, new SimpleMeterRegistry(), 100,
+                Duration.ofHours(1), 2);
+        store.record("viewer-full-1", "movie-1", 10);
+        store.record("viewer-full-2", "movie-1", 10);
+
+        store.record("viewer-full-1", "movie-1", 20);
+        assertThatThrownBy(() -> store.record("viewer-full-1", "movie-2", 10))
+                .isInstanceOf(RetryLaterException.class);
+        assertThat(store.dirtyPositions()).isEqualTo(2);
+
+        assertThat(store.flush()).isEqualTo(2);
+        assertThat(store.dirtyPositions()).isZero();
+        store.record("viewer-full-1", "movie-2", 10);
+        assertThat(store.dirtyPositions()).isEqualTo(1);
+    }
+
+    @Test
+    void loadOverlaysOnlyThatViewersUnflushedPositions() throws Exception {
+        ResumePositionStore store = new ResumePositionStore(jdbcTemplate, new SimpleMeterRegistry(), 100,
+                Duration.ofHours(1), 100);
+        jdbcTemplate.update("""
+                INSERT INTO resume_positions (viewer_id, movie_slug, position_seconds, updated_at)
+                VALUES ('viewer-overlay-1', 'movie-1', 600, now() - interval '1 day')
+                """);
+        store.record("viewer-overlay-1", "movie-1", 700);
+        store.record("viewer-overlay-2", "movie-2", 50);
+
+        List<Map.Entry<String, Position>> recent = store.recent("viewer-overlay-1").get(5, TimeUnit.SECONDS);
+
+        assertThat(recent).extracting(Map.Entry::getKey).containsExactly("movie-1");
+        assertThat(recent.getFirst().getValue().positionSeconds()).isEqualTo(700);
+    }
+}
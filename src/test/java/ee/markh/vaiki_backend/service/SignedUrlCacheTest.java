@@ -0,0 +1,59 @@
+package ee.markh.vaiki_backend.service;
+
+import ee.markh.vaiki_backend.TestKeys;
+import ee.markh.vaiki_backend.service.CloudFrontSignerService.SignedUrlResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignedUrlCacheTest {
+
+    /** Mid-bucket, so both requests in a test land in the same 300 s bucket however slowly they run. */
+    private static final Instant NOW = Instant.ofEpochSecond(1_000_001);
+
+    private SimpleMeterRegistry meterRegistry;
+    private SignedUrlCache signedUrlCache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        CloudFrontSignerService signer = new CloudFrontSignerService(
+                new CloudFrontKeyRing(TestKeys.KEY_PAIR_ID, "", TestKeys.privateKeyPem(), "", new SimpleMeterRegistry()),
+                TestKeys.DOMAIN, 3600, new SimpleMeterRegistry());
+        meterRegistry = new SimpleMeterRegistry();
+        signedUrlCache = new SignedUrlCache(signer, meterRegistry, 300, 100, 60, 14400, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void reusesSignatureWithinBucket() {
+        SignedUrlResult first = signedUrlCache.getSignedUrl("/charade-1963/master.m3u8", 3600);
+        SignedUrlResult second = signedUrlCache.getSignedUrl("/charade-1963/master.m3u8", 3600);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.expiresAt()).isAfterOrEqualTo(NOW.plusSeconds(3600));
+        assertThat(first.expiresAt()).isEqualTo(Instant.ofEpochSecond(1_003_800));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "signedUrls").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void bucketNeverExceedsTtl() {
+        assertThat(signedUrlCache.bucketedExpiry(NOW, 60)).isEqualTo(1_000_080);
+        assertThat(signedUrlCache.bucketedExpiry(NOW, 3600)).isEqualTo(1_003_800);
+    }
+
+    @Test
+    void clampsRequestedTtl() {
+        assertThat(signedUrlCache.ttlSeconds(null)).isEqualTo(3600);
+        assertThat(signedUrlCache.ttlSeconds(-5)).isEqualTo(60);
+        assertThat(signedUrlCache.ttlSeconds(Integer.MAX_VALUE)).isEqualTo(14400);
+
+        SignedUrlResult result = signedUrlCache.getSignedUrl("/charade-1963/master.m3u8", 365 * 24 * 3600);
+        assertThat(result.expiresAt()).isBefore(NOW.plusSeconds(14400 + 300 + 1));
+    }
+}